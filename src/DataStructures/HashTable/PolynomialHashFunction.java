@@ -0,0 +1,19 @@
+package HashTable;
+
+/**
+ * Hash function that weighs every character by its position, like String.hashCode(),
+ * so keys made of the same characters in a different order (words, n-grams) land in different buckets.
+ * The result is never negative, so it can be used directly with %.
+ */
+public class PolynomialHashFunction<K> implements HashFunction<K> {
+
+	@Override
+	public int hashCode(K key) {
+		String temp = key.toString();
+		int result = 0;
+		for (int i = 0; i < temp.length(); i++)
+			result = 31 * result + temp.charAt(i);
+		return result & Integer.MAX_VALUE;
+	}
+
+}
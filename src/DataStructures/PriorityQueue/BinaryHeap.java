@@ -0,0 +1,105 @@
+package PriorityQueue;
+
+import utils.Comparator;
+
+/**
+ * Implementation of a PriorityQueue using a binary min-heap stored in an array.
+ * Values are ordered by the given Comparator, add() and removeMin() take O(log n).
+ */
+public class BinaryHeap<E> implements PriorityQueue<E> {
+
+	// private fields
+	private E elements[];
+	private int currentSize;
+	private Comparator<? super E> comparator;
+	private static final int DEFAULT_SIZE = 11;
+
+	public BinaryHeap(Comparator<? super E> comparator) {
+		this(DEFAULT_SIZE, comparator);
+	}
+
+	@SuppressWarnings("unchecked")
+	public BinaryHeap(int initialCapacity, Comparator<? super E> comparator) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		if (comparator == null)
+			throw new IllegalArgumentException("Comparator cannot be null.");
+		this.currentSize = 0;
+		this.elements = (E[]) new Object[initialCapacity];
+		this.comparator = comparator;
+	}
+
+	@Override
+	public void add(E e) {
+		if (e == null)
+			throw new IllegalArgumentException("Value cannot be null.");
+		if (this.currentSize == this.elements.length)
+			reAllocate();
+		/* Place the value at the bottom and move it up until its parent is not bigger */
+		int child = this.currentSize++;
+		while (child > 0) {
+			int parent = (child - 1) / 2;
+			if (comparator.compare(this.elements[parent], e) <= 0)
+				break;
+			this.elements[child] = this.elements[parent];
+			child = parent;
+		}
+		this.elements[child] = e;
+	}
+
+	@Override
+	public E min() {
+		return this.isEmpty() ? null : this.elements[0];
+	}
+
+	@Override
+	public E removeMin() {
+		if (this.isEmpty())
+			return null;
+		E min = this.elements[0];
+		E last = this.elements[--this.currentSize];
+		this.elements[this.currentSize] = null;
+		if (this.currentSize > 0) {
+			/* Move the last value down from the root until no child is smaller */
+			int parent = 0;
+			while (2 * parent + 1 < this.currentSize) {
+				int child = 2 * parent + 1;
+				if (child + 1 < this.currentSize && comparator.compare(this.elements[child + 1], this.elements[child]) < 0)
+					child++;
+				if (comparator.compare(last, this.elements[child]) <= 0)
+					break;
+				this.elements[parent] = this.elements[child];
+				parent = child;
+			}
+			this.elements[parent] = last;
+		}
+		return min;
+	}
+
+	@Override
+	public int size() {
+		return this.currentSize;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < this.currentSize; i++)
+			this.elements[i] = null;
+		this.currentSize = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void reAllocate() {
+		/* create a new array with twice the size */
+		E newElements[] = (E[]) new Object[2 * this.elements.length];
+		for (int i = 0; i < this.size(); i++)
+			newElements[i] = this.elements[i];
+		this.elements = newElements;
+	}
+
+}
@@ -0,0 +1,46 @@
+package PriorityQueue;
+
+public interface PriorityQueue<E> {
+
+	/**
+	 * Add a new value to the priority queue.
+	 * 
+	 * @param e Value to be added
+	 * @throws IllegalArgumentException If the value e is null
+	 */
+	void add(E e) throws IllegalArgumentException;
+
+	/**
+	 * Return the smallest value without removing it, or null if the priority queue is empty.
+	 * 
+	 * @return The smallest value
+	 */
+	E min();
+
+	/**
+	 * Remove and return the smallest value, or null if the priority queue is empty.
+	 * 
+	 * @return The smallest value
+	 */
+	E removeMin();
+
+	/**
+	 * Return the amount of values in the priority queue.
+	 * 
+	 * @return The amount of values
+	 */
+	int size();
+
+	/**
+	 * Determine whether the priority queue is empty.
+	 * 
+	 * @return True if the priority queue is empty, false otherwise.
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Remove all of the values from the priority queue.
+	 */
+	void clear();
+
+}
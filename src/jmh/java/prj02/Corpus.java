@@ -0,0 +1,105 @@
+package prj02;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * The inputs of the benchmarks: the files of inputData, named as in load_data(), or synthetic text of a given size,
+ * named like "1MB" or "2GB".
+ *
+ * Synthetic text is random letters, spaces and line breaks with a skewed distribution, like text,
+ * so the Huffman trees are as deep and as unbalanced as those of real inputs.
+ */
+final class Corpus {
+
+	private static final long SEED = 4020;
+
+	private Corpus() {
+	}
+
+	/** @return whether the input is synthetic, not a file of inputData */
+	static boolean isSynthetic(String input) {
+		return input.matches("\\d+[KMG]B");
+	}
+
+	/** @return the size in chars of a synthetic input */
+	static long size(String input) {
+		long units = Long.parseLong(input.substring(0, input.length() - 2));
+		switch (input.charAt(input.length() - 2)) {
+		case 'K':
+			return units << 10;
+		case 'M':
+			return units << 20;
+		default:
+			return units << 30;
+		}
+	}
+
+	/** @return the next synthetic char */
+	static char next(Random random) {
+		int i = (int) Math.abs(random.nextGaussian() * 7);
+		return i < 26 ? (char) ('a' + i) : i == 26 ? '\n' : ' ';
+	}
+
+	/**
+	 * Returns the whole text of an input.
+	 *
+	 * @param input a file of inputData or a synthetic size under 1GB
+	 * @return the text
+	 */
+	static String text(String input) {
+		if (!isSynthetic(input))
+			return HuffmanCoding.load_data(input);
+		long size = size(input);
+		if (size >= Integer.MAX_VALUE / 2)
+			throw new IllegalArgumentException(input + " is too big to be held in a String, use the streaming benchmarks.");
+		char[] chars = new char[(int) size];
+		Random random = new Random(SEED);
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = next(random);
+		return new String(chars);
+	}
+
+	/**
+	 * Returns a file with the text of an input, writing synthetic text to a temporary file.
+	 *
+	 * @param input a file of inputData or a synthetic size
+	 * @return the file, deleted on exit if it is temporary
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	static File file(String input) throws IOException {
+		if (!isSynthetic(input))
+			return new File("inputData", input);
+		File file = File.createTempFile("corpus-" + input, ".txt");
+		file.deleteOnExit();
+		Random random = new Random(SEED);
+		try (OutputStream out = Files.newOutputStream(file.toPath());
+				Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+			char[] buffer = new char[ChunkedReader.DEFAULT_BUFFER_SIZE];
+			for (long left = size(input); left > 0; left -= buffer.length) {
+				int length = (int) Math.min(buffer.length, left);
+				for (int i = 0; i < length; i++)
+					buffer[i] = next(random);
+				writer.write(buffer, 0, length);
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Names a file the way load_data() takes it, relative to inputData.
+	 *
+	 * @param file the file
+	 * @return the path of the file from the inputData directory
+	 */
+	static String dataName(File file) {
+		return new File("inputData").getAbsoluteFile().toPath().relativize(file.getAbsoluteFile().toPath()).toString();
+	}
+
+}
@@ -0,0 +1,120 @@
+package prj02;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import HashTable.HashTableSC;
+import HashTable.Map;
+import HashTable.SimpleHashFunction;
+import List.ArrayList;
+import List.LinkedList;
+import List.List;
+import SortedList.SortedLinkedList;
+
+/**
+ * Measures the operations the pipeline does on the course data structures, for as many elements
+ * as a text's alphabet (tens to hundreds of symbols) and more. Every benchmark builds or scans a whole structure,
+ * so its score is in structures per second.
+ *
+ * Run with: gradle jmh [-PjmhInclude=DataStructureBenchmark]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataStructureBenchmark {
+
+	@Param({ "16", "256", "4096" })
+	public int size;
+
+	private String[] keys;
+	private Map<String, Integer> table;
+	private List<String> arrayList;
+	private List<String> linkedList;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		keys = new String[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = String.valueOf((char) (i * 7919 % 65521));
+		table = new HashTableSC<String, Integer>(size, new SimpleHashFunction<String>());
+		arrayList = new ArrayList<String>();
+		linkedList = new LinkedList<String>();
+		for (int i = 0; i < size; i++) {
+			table.put(keys[i], i);
+			arrayList.add(keys[i]);
+			linkedList.add(keys[i]);
+		}
+	}
+
+	@Benchmark
+	public Map<String, Integer> hashTablePut() {
+		Map<String, Integer> result = new HashTableSC<String, Integer>(new SimpleHashFunction<String>());
+		for (int i = 0; i < size; i++)
+			result.put(keys[i], i);
+		return result;
+	}
+
+	@Benchmark
+	public void hashTableGet(Blackhole blackhole) {
+		for (int i = 0; i < size; i++)
+			blackhole.consume(table.get(keys[i]));
+	}
+
+	@Benchmark
+	public List<String> hashTableGetKeys() {
+		return table.getKeys();
+	}
+
+	@Benchmark
+	public List<String> arrayListAdd() {
+		List<String> result = new ArrayList<String>();
+		for (int i = 0; i < size; i++)
+			result.add(keys[i]);
+		return result;
+	}
+
+	@Benchmark
+	public void arrayListIterate(Blackhole blackhole) {
+		for (String key : arrayList)
+			blackhole.consume(key);
+	}
+
+	@Benchmark
+	public List<String> linkedListAdd() {
+		List<String> result = new LinkedList<String>();
+		for (int i = 0; i < size; i++)
+			result.add(keys[i]);
+		return result;
+	}
+
+	@Benchmark
+	public void linkedListIterate(Blackhole blackhole) {
+		for (String key : linkedList)
+			blackhole.consume(key);
+	}
+
+	@Benchmark
+	public void linkedListGet(Blackhole blackhole) {
+		for (int i = 0; i < size; i++)
+			blackhole.consume(linkedList.get(i));
+	}
+
+	@Benchmark
+	public SortedLinkedList<String> sortedLinkedListAdd() {
+		SortedLinkedList<String> result = new SortedLinkedList<String>();
+		for (int i = 0; i < size; i++)
+			result.add(keys[i]);
+		return result;
+	}
+
+}
@@ -0,0 +1,64 @@
+package prj02;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures how the throughput of ParallelFrequencyCounter scales with the amount of threads.
+ * The speedup of n threads is the score of n threads over the score of 1.
+ *
+ * Run with: gradle jmh -PjmhInclude=ParallelCountBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelCountBenchmark {
+
+	@Param({ "256" })
+	public int megabytes;
+
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	@Param({ "" + ParallelFrequencyCounter.DEFAULT_CHUNK_SIZE })
+	public int chunkSize;
+
+	private char[] input;
+	private ParallelFrequencyCounter counter;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		/* Random letters with a skewed distribution, like text */
+		input = new char[megabytes * 1024 * 1024];
+		Random random = new Random(4020);
+		for (int i = 0; i < input.length; i++)
+			input[i] = (char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 6)));
+		counter = new ParallelFrequencyCounter(threads, chunkSize);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		counter.close();
+	}
+
+	@Benchmark
+	public SymbolHistogram count(BytesCounter bytes) {
+		bytes.bytes += input.length;
+		SymbolHistogram histogram = counter.count(input, 0, input.length);
+		if (histogram.total() != input.length)
+			throw new IllegalStateException("Wrong count with " + threads + " threads.");
+		return histogram;
+	}
+
+}
@@ -0,0 +1,91 @@
+package prj02;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import HashTable.Map;
+import Tree.BTNode;
+
+/**
+ * Measures every stage HuffmanEncodedResult runs, one benchmark per stage, each one fed the output of the stages
+ * before it. The inputs go from the small files of inputData to synthetic text of several megabytes; inputs of
+ * gigabytes do not fit in a String and are measured by StreamingBenchmark.
+ *
+ * Run with: gradle jmh [-PjmhInclude=PipelineBenchmark]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PipelineBenchmark {
+
+	@Param({ "input1.txt", "stringData6.txt", "1MB", "16MB" })
+	public String input;
+
+	private String dataName;
+	private String text;
+	private Map<String, Integer> fD;
+	private BTNode<Integer, String> huffmanRoot;
+	private Map<String, String> encodedHuffman;
+	private String output;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		dataName = Corpus.dataName(Corpus.file(input));
+		text = Corpus.text(input);
+		fD = HuffmanCoding.compute_fd(text);
+		huffmanRoot = HuffmanCoding.huffman_tree(fD);
+		encodedHuffman = HuffmanCoding.huffman_code(huffmanRoot);
+		output = HuffmanCoding.encode(encodedHuffman, text);
+	}
+
+	@Benchmark
+	public String load_data(BytesCounter counter) {
+		counter.bytes += text.length();
+		return HuffmanCoding.load_data(dataName);
+	}
+
+	@Benchmark
+	public Map<String, Integer> compute_fd(BytesCounter counter) {
+		counter.bytes += text.length();
+		return HuffmanCoding.compute_fd(text);
+	}
+
+	@Benchmark
+	public BTNode<Integer, String> huffman_tree() {
+		return HuffmanCoding.huffman_tree(fD);
+	}
+
+	@Benchmark
+	public Map<String, String> huffman_code() {
+		return HuffmanCoding.huffman_code(huffmanRoot);
+	}
+
+	@Benchmark
+	public String encode(BytesCounter counter) {
+		counter.bytes += text.length();
+		return HuffmanCoding.encode(encodedHuffman, text);
+	}
+
+	@Benchmark
+	public PackedBits encodePacked(BytesCounter counter) {
+		counter.bytes += text.length();
+		return HuffmanCoding.encodePacked(encodedHuffman, text);
+	}
+
+	@Benchmark
+	public String decodeHuff(BytesCounter counter) {
+		counter.bytes += text.length();
+		return HuffmanCoding.decodeHuff(output, encodedHuffman);
+	}
+
+}
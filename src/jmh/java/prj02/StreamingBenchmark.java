@@ -0,0 +1,95 @@
+package prj02;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import HashTable.Map;
+
+/**
+ * Measures the stages that never hold the whole input in memory, on files of up to gigabytes:
+ * counting and encoding through ChunkedReader and through memory mappings, and compressing into the block container.
+ *
+ * Run with: gradle jmh [-PjmhInclude=StreamingBenchmark]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StreamingBenchmark {
+
+	@Param({ "stringData6.txt", "64MB", "1GB" })
+	public String input;
+
+	private File file;
+	private Map<String, String> encodedHuffman;
+	private ParallelFrequencyCounter counter;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		file = Corpus.file(input);
+		counter = new ParallelFrequencyCounter();
+		try (MappedInput mapped = MappedInput.open(file.getPath())) {
+			encodedHuffman = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(mapped, counter)));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		counter.close();
+		if (Corpus.isSynthetic(input))
+			file.delete();
+	}
+
+	@Benchmark
+	public Map<String, Integer> compute_fd_reader(BytesCounter bytes) throws IOException {
+		bytes.bytes += file.length();
+		try (ChunkedReader reader = ChunkedReader.open(file.getPath())) {
+			return HuffmanCoding.compute_fd(reader);
+		}
+	}
+
+	@Benchmark
+	public Map<String, Integer> compute_fd_mapped(BytesCounter bytes) throws IOException {
+		bytes.bytes += file.length();
+		try (MappedInput mapped = MappedInput.open(file.getPath())) {
+			return HuffmanCoding.compute_fd(mapped, counter);
+		}
+	}
+
+	@Benchmark
+	public long encode_reader(BytesCounter bytes) throws IOException {
+		bytes.bytes += file.length();
+		try (ChunkedReader reader = ChunkedReader.open(file.getPath())) {
+			return HuffmanCoding.encode(encodedHuffman, reader, OutputStream.nullOutputStream());
+		}
+	}
+
+	@Benchmark
+	public long encode_mapped(BytesCounter bytes) throws IOException {
+		bytes.bytes += file.length();
+		try (MappedInput mapped = MappedInput.open(file.getPath())) {
+			return HuffmanCoding.encode(encodedHuffman, mapped, OutputStream.nullOutputStream());
+		}
+	}
+
+	@Benchmark
+	public void compress(BytesCounter bytes) throws IOException {
+		bytes.bytes += file.length();
+		try (ChunkedReader reader = ChunkedReader.open(file.getPath())) {
+			HuffmanCoding.compress(reader, OutputStream.nullOutputStream(), HuffmanContainer.DEFAULT_BLOCK_SIZE);
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package prj02;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Decompresses text written by {@link AdaptiveHuffmanWriter} as it arrives, keeping the same
+ * {@link AdaptiveHuffmanTree} as the writer by making the same updates after every char.
+ *
+ * A read blocks until at least one char is decoded, then goes on only while the bytes already
+ * available complete more codes, so chars come out as soon as the writer flushes them.
+ * Decoding stops at the end marker; nothing after it is read beyond the end of its byte.
+ */
+public class AdaptiveHuffmanReader extends Reader {
+
+	private static final int END = -1;
+	private static final int WOULD_BLOCK = -2;
+
+	/* Where the decode of the current symbol is, so it can resume once more bytes arrive */
+	private static final int WALK = 0, FLAG = 1, LITERAL = 2;
+
+	private final AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+	private final InputStream in;
+	private int bitBuffer;
+	private int bitCount; // Bits of bitBuffer not read yet
+	private int stage;
+	private int node;
+	private int literal;
+	private int literalBits;
+	private boolean ended;
+
+	public AdaptiveHuffmanReader(InputStream in) {
+		this.in = in;
+		this.stage = WALK;
+		this.node = AdaptiveHuffmanTree.ROOT;
+		this.ended = false;
+	}
+
+	@Override
+	public int read(char[] chars, int offset, int length) throws IOException {
+		if (ended)
+			return -1;
+		if (length == 0)
+			return 0;
+		int c = decode(true);
+		if (c == END)
+			return -1;
+		chars[offset] = (char) c;
+		int n = 1;
+		while (n < length && (c = decode(false)) >= 0)
+			chars[offset + n++] = (char) c;
+		return n;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/* Decodes the next char, END at the end marker, or WOULD_BLOCK if it needs bytes that did not arrive yet */
+	private int decode(boolean block) throws IOException {
+		if (ended)
+			return END;
+		while (true) {
+			if (stage == WALK) {
+				if (tree.isLeaf(node)) {
+					if (node == tree.nyt()) {
+						stage = FLAG;
+						continue;
+					}
+					char c = (char) tree.symbolOf(node);
+					tree.update(c);
+					node = AdaptiveHuffmanTree.ROOT;
+					return c;
+				}
+				int bit = nextBit(block);
+				if (bit < 0)
+					return WOULD_BLOCK;
+				node = tree.child(node, bit == 1);
+			} else if (stage == FLAG) {
+				int bit = nextBit(block);
+				if (bit < 0)
+					return WOULD_BLOCK;
+				if (bit == 1) {
+					ended = true;
+					return END;
+				}
+				stage = LITERAL;
+				literal = 0;
+				literalBits = 0;
+			} else {
+				int bit = nextBit(block);
+				if (bit < 0)
+					return WOULD_BLOCK;
+				literal = (literal << 1) | bit;
+				if (++literalBits == 16) {
+					tree.update((char) literal);
+					stage = WALK;
+					node = AdaptiveHuffmanTree.ROOT;
+					return literal;
+				}
+			}
+		}
+	}
+
+	/* Next bit of the input, -1 if it is not available and the read must not block */
+	private int nextBit(boolean block) throws IOException {
+		if (bitCount == 0) {
+			if (!block && in.available() <= 0)
+				return -1;
+			int b = in.read();
+			if (b < 0)
+				throw new EOFException("Stream ends before the end marker.");
+			bitBuffer = b;
+			bitCount = 8;
+		}
+		return (bitBuffer >>> --bitCount) & 1;
+	}
+
+}
@@ -0,0 +1,181 @@
+package prj02;
+
+import java.util.Arrays;
+
+/**
+ * The Huffman tree of an adaptive (FGK) Huffman code, updated after every symbol so it always fits
+ * the counts of the symbols seen so far. The encoder and the decoder keep identical trees by making
+ * the same updates in the same order, so no table ever has to be sent.
+ *
+ * Nodes live in arrays indexed by their order: the root is node 0, and weights never increase
+ * with the index, with siblings next to each other (the sibling property). Symbols not seen yet
+ * share the zero weight NYT leaf, always the last node. To add one to a leaf's weight, the leaf
+ * first trades places with the first node of the same weight, which keeps the order valid, then
+ * the same happens to its parent, up to the root. The first node of a weight is found by binary search,
+ * so an update takes O(depth * log(size)) steps.
+ */
+public class AdaptiveHuffmanTree {
+
+	public static final int ROOT = 0;
+
+	private int[] weights;
+	private int[] parents;
+	private int[] lefts; // -1 for leaves
+	private int[] rights;
+	private int[] symbols; // -1 for internal nodes and the NYT leaf
+	private final int[] leafOf = new int[Character.MAX_VALUE + 1]; // Node of every char, -1 if not seen yet
+	private int size;
+	private int nyt;
+
+	public AdaptiveHuffmanTree() {
+		weights = new int[64];
+		parents = new int[64];
+		lefts = new int[64];
+		rights = new int[64];
+		symbols = new int[64];
+		Arrays.fill(leafOf, -1);
+		/* At first the NYT leaf is the whole tree */
+		size = 1;
+		nyt = ROOT;
+		parents[ROOT] = -1;
+		lefts[ROOT] = -1;
+		rights[ROOT] = -1;
+		symbols[ROOT] = -1;
+	}
+
+	/** @return the node of the NYT leaf, which stands for every symbol not seen yet */
+	public int nyt() {
+		return nyt;
+	}
+
+	/** @return the leaf of the char, -1 if it was not seen yet */
+	public int leafOf(char c) {
+		return leafOf[c];
+	}
+
+	public boolean isLeaf(int node) {
+		return lefts[node] < 0;
+	}
+
+	/** @return the char of a leaf, -1 for the NYT leaf */
+	public int symbolOf(int node) {
+		return symbols[node];
+	}
+
+	/** @return the child the bit leads to, 0 to the left and 1 to the right */
+	public int child(int node, boolean bit) {
+		return bit ? rights[node] : lefts[node];
+	}
+
+	/** @return the parent of the node, -1 for the root */
+	public int parentOf(int node) {
+		return parents[node];
+	}
+
+	/** @return whether the node is the right child of its parent, so its last code bit is 1 */
+	public boolean isRightChild(int node) {
+		return rights[parents[node]] == node;
+	}
+
+	/** @return how many times the symbols under the node were seen */
+	public int weightOf(int node) {
+		return weights[node];
+	}
+
+	/** @return the amount of nodes in the tree */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Counts one more occurrence of a char, adding it to the tree if it was not seen yet.
+	 *
+	 * @param c the char that was just encoded or decoded
+	 */
+	public void update(char c) {
+		int node = leafOf[c];
+		if (node < 0) {
+			/* The NYT leaf splits into a new NYT leaf and the new char's leaf */
+			if (size + 2 > weights.length)
+				reAllocate();
+			int parent = nyt;
+			node = size;
+			nyt = size + 1;
+			size += 2;
+			setLeaf(node, parent, c);
+			setLeaf(nyt, parent, -1);
+			lefts[parent] = nyt;
+			rights[parent] = node;
+			symbols[parent] = -1;
+			leafOf[c] = node;
+		}
+
+		while (node >= 0) {
+			int leader = leader(node);
+			if (leader != node && leader != parents[node]) {
+				swap(leader, node);
+				node = leader;
+			}
+			weights[node]++;
+			node = parents[node];
+		}
+	}
+
+	/* The first node of the block of equal weights. Weights never increase with the index up to the node,
+	 * so a binary search finds it in log steps even when most of the alphabet shares the weight */
+	private int leader(int node) {
+		int low = ROOT, high = node;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (weights[middle] > weights[node])
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	private void setLeaf(int node, int parent, int symbol) {
+		weights[node] = 0;
+		parents[node] = parent;
+		lefts[node] = -1;
+		rights[node] = -1;
+		symbols[node] = symbol;
+	}
+
+	/* Trades the subtrees at two places of the order, the places keep their parents */
+	private void swap(int a, int b) {
+		int weight = weights[a], left = lefts[a], right = rights[a], symbol = symbols[a];
+		weights[a] = weights[b];
+		lefts[a] = lefts[b];
+		rights[a] = rights[b];
+		symbols[a] = symbols[b];
+		weights[b] = weight;
+		lefts[b] = left;
+		rights[b] = right;
+		symbols[b] = symbol;
+		adopt(a);
+		adopt(b);
+	}
+
+	/* Points the children, or the leaf index, of a node that just moved to its new place */
+	private void adopt(int node) {
+		if (lefts[node] >= 0) {
+			parents[lefts[node]] = node;
+			parents[rights[node]] = node;
+		} else if (symbols[node] >= 0)
+			leafOf[symbols[node]] = node;
+		else
+			nyt = node;
+	}
+
+	private void reAllocate() {
+		int capacity = 2 * weights.length;
+		weights = Arrays.copyOf(weights, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		lefts = Arrays.copyOf(lefts, capacity);
+		rights = Arrays.copyOf(rights, capacity);
+		symbols = Arrays.copyOf(symbols, capacity);
+	}
+
+}
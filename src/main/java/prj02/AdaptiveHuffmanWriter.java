@@ -0,0 +1,101 @@
+package prj02;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Compresses text in one pass with an adaptive Huffman code, so a live stream can be compressed as it flows.
+ *
+ * Every char is written with its code in the current {@link AdaptiveHuffmanTree}, then the tree is updated.
+ * A char seen for the first time is written as the code of the NYT leaf, a 0 bit and the char's 16 bits.
+ * The end of the text is the code of the NYT leaf followed by a 1 bit.
+ */
+public class AdaptiveHuffmanWriter extends Writer {
+
+	private final AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+	private final OutputStream out;
+	private final BitWriter bits;
+	private int[] path = new int[64]; // Bits of a code from the leaf up
+	private boolean closed;
+
+	public AdaptiveHuffmanWriter(OutputStream out) {
+		this.out = out;
+		this.bits = new BitWriter(out);
+		this.closed = false;
+	}
+
+	@Override
+	public void write(char[] chars, int offset, int length) throws IOException {
+		if (closed)
+			throw new IOException("Writer is closed.");
+		try {
+			for (int i = offset; i < offset + length; i++) {
+				char c = chars[i];
+				int leaf = tree.leafOf(c);
+				if (leaf >= 0)
+					writeCode(leaf);
+				else {
+					writeCode(tree.nyt());
+					bits.write(c, 17); // A 0 flag bit, then the char
+				}
+				tree.update(c);
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Sends every whole byte written so far, so the reader can decode every char whose code is complete.
+	 * The bits of the last byte stay pending until more chars complete it or the writer is closed.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (!closed)
+			bits.flush();
+	}
+
+	/**
+	 * Writes the end of the text, pads the last byte and closes the stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			writeCode(tree.nyt());
+			bits.writeBit(true);
+			bits.finish();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			out.close();
+		}
+	}
+
+	/* Writes the path from the root to the node, gathered from the node up */
+	private void writeCode(int node) {
+		int depth = 0;
+		for (int n = node; n != AdaptiveHuffmanTree.ROOT; n = tree.parentOf(n)) {
+			if (depth == path.length)
+				path = Arrays.copyOf(path, 2 * depth);
+			path[depth++] = tree.isRightChild(n) ? 1 : 0;
+		}
+		long code = 0;
+		int length = 0;
+		for (int i = depth - 1; i >= 0; i--) {
+			code = (code << 1) | path[i];
+			if (++length == 64) {
+				bits.write(code, length);
+				code = 0;
+				length = 0;
+			}
+		}
+		bits.write(code, length);
+	}
+
+}
@@ -0,0 +1,326 @@
+package prj02;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Compresses or decompresses many files at the same time.
+ *
+ * Every file is a task: it reads the whole file, compresses it into the block container format of HuffmanContainer
+ * in memory, and writes the result. Tasks run on virtual threads when the JVM has them, one per file, and on a fixed
+ * pool of worker threads otherwise. Either way, semaphores keep the work in check: one bounds how many files
+ * are read or written at the same time, so thousands of tasks do not all hit the disks at once, one bounds
+ * how many files are compressed at the same time, so the CPU-bound part never runs on more threads than there are cores,
+ * and one bounds how many files a task has started reading and not finished writing, so only that many are ever in memory.
+ * A file that fails does not stop the others; it is counted and reported in the summary.
+ *
+ * Outputs keep the paths of their inputs relative to the deepest directory the inputs share.
+ */
+public class BatchCompressor implements Closeable {
+
+	public static final String EXTENSION = ".huf";
+	public static final int DEFAULT_IO_PERMITS = 4;
+
+	/** The totals of a batch */
+	public static class Summary {
+		private int files;
+		private final ArrayList<String> failures = new ArrayList<>();
+		private long inputBytes, outputBytes;
+		private long nanos;
+
+		public int getFiles() {
+			return files;
+		}
+
+		public int getFailed() {
+			return failures.size();
+		}
+
+		/** @return the path and error of every file that failed */
+		public List<String> getFailures() {
+			return failures;
+		}
+
+		public long getInputBytes() {
+			return inputBytes;
+		}
+
+		public long getOutputBytes() {
+			return outputBytes;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		/** @return the output bytes over the input bytes of the files that did not fail */
+		public double ratio() {
+			return inputBytes == 0 ? 0 : (double) outputBytes / inputBytes;
+		}
+
+		/** @return the input megabytes handled per second of wall time */
+		public double throughput() {
+			return nanos == 0 ? 0 : inputBytes / 1e6 / (nanos / 1e9);
+		}
+
+		@Override
+		public String toString() {
+			DecimalFormat d = new DecimalFormat("##.##");
+			return files + " files (" + failures.size() + " failed), " + inputBytes + " bytes -> " + outputBytes + " bytes ("
+					+ d.format(ratio() * 100) + "%) in " + d.format(nanos / 1e9) + " s, " + d.format(throughput()) + " MB/s";
+		}
+	}
+
+	private final ExecutorService executor;
+	private final boolean virtual;
+	private final Semaphore ioPermits;
+	private final Semaphore cpuPermits;
+	private final Semaphore inFlightPermits;
+	private final int blockSize;
+
+	public BatchCompressor() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_IO_PERMITS);
+	}
+
+	/**
+	 * Creates a compressor with its own threads.
+	 *
+	 * @param workers the amount of files compressed at the same time
+	 * @param ioPermits the amount of files read or written at the same time
+	 */
+	public BatchCompressor(int workers, int ioPermits) {
+		this(workers, ioPermits, HuffmanContainer.DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Creates a compressor with its own threads.
+	 *
+	 * @param workers the amount of files compressed at the same time
+	 * @param ioPermits the amount of files read or written at the same time
+	 * @param blockSize the amount of characters in every container block but the last one
+	 */
+	public BatchCompressor(int workers, int ioPermits, int blockSize) {
+		if (workers < 1)
+			throw new IllegalArgumentException("There must be at least 1 worker.");
+		if (ioPermits < 1)
+			throw new IllegalArgumentException("There must be at least 1 I/O permit.");
+		ExecutorService executor = newVirtualThreadExecutor();
+		this.virtual = executor != null;
+		this.executor = virtual ? executor : Executors.newFixedThreadPool(workers);
+		this.ioPermits = new Semaphore(ioPermits);
+		this.cpuPermits = new Semaphore(workers);
+		this.inFlightPermits = new Semaphore(workers + ioPermits);
+		this.blockSize = blockSize;
+	}
+
+	/* Executors.newVirtualThreadPerTaskExecutor() exists from Java 21 on, and is looked up so older JVMs still run */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/** @return whether the tasks run on virtual threads */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/**
+	 * Finds the files named by a directory or a glob.
+	 *
+	 * @param pattern a directory, whose regular files are taken, or a glob like inputData/*.txt, where ** crosses directories
+	 * @return the files, sorted by path
+	 * @throws IOException if the directories cannot be listed
+	 */
+	public static File[] resolve(String pattern) throws IOException {
+		Path path = Paths.get(pattern);
+		if (Files.isDirectory(path)) {
+			try (Stream<Path> files = Files.list(path)) {
+				return sorted(files.filter(Files::isRegularFile));
+			}
+		}
+		if (Files.isRegularFile(path))
+			return new File[] { path.toFile() };
+
+		/* Walk from the deepest directory without glob characters */
+		int glob = 0;
+		while (glob < pattern.length() && "*?[{".indexOf(pattern.charAt(glob)) < 0)
+			glob++;
+		int separator = Math.max(pattern.lastIndexOf('/', glob), pattern.lastIndexOf(File.separatorChar, glob));
+		Path base = Paths.get(separator < 0 ? "." : pattern.substring(0, separator + 1));
+		PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+		if (!Files.isDirectory(base))
+			return new File[0];
+		try (Stream<Path> files = Files.walk(base)) {
+			return sorted(files.filter(p -> Files.isRegularFile(p) && matcher.matches(separator < 0 ? base.relativize(p) : p)));
+		}
+	}
+
+	private static File[] sorted(Stream<Path> paths) {
+		File[] files = paths.map(Path::toFile).toArray(File[]::new);
+		Arrays.sort(files);
+		return files;
+	}
+
+	/**
+	 * Compresses every file into outputDir, adding EXTENSION to its name and keeping its path relative to the inputs' shared directory.
+	 *
+	 * @param inputs the files to compress, read as UTF-8 text; files that are not UTF-8 fail
+	 * @param outputDir where the containers are written, created if needed
+	 * @return the totals of the batch
+	 * @throws IOException if outputDir cannot be created, or two inputs would be written to the same output
+	 */
+	public Summary compress(File[] inputs, File outputDir) throws IOException {
+		return run(inputs, outputDir, true);
+	}
+
+	/**
+	 * Decompresses every container into outputDir, removing EXTENSION from its name and keeping its path relative to the inputs' shared directory.
+	 *
+	 * @param inputs the containers written by compress()
+	 * @param outputDir where the text is written as UTF-8, created if needed
+	 * @return the totals of the batch, where the input bytes are the containers' bytes
+	 * @throws IOException if outputDir cannot be created, or two inputs would be written to the same output
+	 */
+	public Summary decompress(File[] inputs, File outputDir) throws IOException {
+		return run(inputs, outputDir, false);
+	}
+
+	private Summary run(File[] inputs, File outputDir, boolean compress) throws IOException {
+		File[] outputs = outputs(inputs, outputDir, compress);
+		Files.createDirectories(outputDir.toPath());
+		long start = System.nanoTime();
+		ArrayList<Future<long[]>> tasks = new ArrayList<>(inputs.length);
+		for (int i = 0; i < inputs.length; i++) {
+			File input = inputs[i], output = outputs[i];
+			tasks.add(executor.submit(() -> process(input, output, compress)));
+		}
+
+		Summary summary = new Summary();
+		summary.files = inputs.length;
+		for (int i = 0; i < inputs.length; i++) {
+			try {
+				long[] sizes = tasks.get(i).get();
+				summary.inputBytes += sizes[0];
+				summary.outputBytes += sizes[1];
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for " + inputs[i] + ".", e);
+			} catch (ExecutionException e) {
+				summary.failures.add(inputs[i] + ": " + e.getCause());
+			}
+		}
+		summary.nanos = System.nanoTime() - start;
+		return summary;
+	}
+
+	/* Every output keeps the path of its input relative to the deepest directory all inputs share,
+	 * so files with the same name in different directories do not overwrite each other */
+	private static File[] outputs(File[] inputs, File outputDir, boolean compress) throws IOException {
+		Path base = null;
+		for (File input : inputs) {
+			Path parent = input.getAbsoluteFile().toPath().normalize().getParent();
+			if (base == null)
+				base = parent;
+			while (!parent.startsWith(base))
+				base = base.getParent();
+		}
+
+		File[] outputs = new File[inputs.length];
+		HashSet<Path> names = new HashSet<>();
+		for (int i = 0; i < inputs.length; i++) {
+			Path relative = base.relativize(inputs[i].getAbsoluteFile().toPath().normalize());
+			String name = relative.getFileName().toString();
+			if (compress)
+				name += EXTENSION;
+			else
+				name = name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name + ".out";
+			Path output = outputDir.toPath().resolve(relative).resolveSibling(name);
+			if (!names.add(output.toAbsolutePath().normalize()))
+				throw new IOException("Two inputs would be written to " + output + ".");
+			outputs[i] = output.toFile();
+		}
+		return outputs;
+	}
+
+	/* One file: read it, (de)compress it in memory and write it. Returns the input and output sizes.
+	 * The in-flight permit is taken before reading, so only that many files are ever held in memory */
+	private long[] process(File input, File output, boolean compress) throws IOException, InterruptedException {
+		inFlightPermits.acquire();
+		try {
+			byte[] in;
+			ioPermits.acquire();
+			try {
+				in = Files.readAllBytes(input.toPath());
+			} finally {
+				ioPermits.release();
+			}
+
+			byte[] out;
+			cpuPermits.acquire();
+			try {
+				out = compress ? compress(in) : decompress(in);
+			} finally {
+				cpuPermits.release();
+			}
+
+			ioPermits.acquire();
+			try {
+				Files.createDirectories(output.getParentFile().toPath());
+				Files.write(output.toPath(), out);
+			} finally {
+				ioPermits.release();
+			}
+			return new long[] { in.length, out.length };
+		} finally {
+			inFlightPermits.release();
+		}
+	}
+
+	private byte[] compress(byte[] text) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(text.length / 2 + 64);
+		/* Bytes that are not UTF-8 fail the file instead of being replaced, which would not round trip */
+		CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		HuffmanCoding.compress(new ChunkedReader(new InputStreamReader(new ByteArrayInputStream(text), utf8)), out, blockSize);
+		return out.toByteArray();
+	}
+
+	private static byte[] decompress(byte[] container) throws IOException {
+		StringWriter out = new StringWriter();
+		HuffmanCoding.decompress(new ByteArrayInputStream(container), out);
+		return out.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+}
@@ -0,0 +1,141 @@
+package prj02;
+
+/**
+ * Reads bits most-significant-first from a byte array written by {@link BitWriter}.
+ *
+ * Bytes are loaded into a 64-bit accumulator so several bits can be peeked at once,
+ * which is what a table driven decoder needs. Reading past the end yields zeros,
+ * callers are expected to stop once {@link #hasMore()} returns false.
+ */
+public class BitReader {
+
+	private final byte[] data;
+	private final long bitLength;
+	private int nextByte; // Next byte of data to load into the accumulator
+	private long accumulator; // Loaded bits, right aligned
+	private int accBits; // Amount of loaded bits not consumed yet
+
+	public BitReader(byte[] data, long bitLength) {
+		if (data == null)
+			throw new IllegalArgumentException("Data cannot be null.");
+		if (bitLength < 0 || bitLength > (long) data.length * 8)
+			throw new IllegalArgumentException("Bit length does not fit in the data.");
+		this.data = data;
+		this.bitLength = bitLength;
+		nextByte = 0;
+		accumulator = 0;
+		accBits = 0;
+	}
+
+	public BitReader(PackedBits bits) {
+		this(bits.getBytes(), bits.bitLength());
+	}
+
+	/**
+	 * Returns the next n bits without consuming them.
+	 *
+	 * @param n amount of bits to peek, between 0 and 32
+	 * @return the next n bits as the lowest bits of an int
+	 */
+	public int peek(int n) {
+		if (n < 0 || n > 32)
+			throw new IllegalArgumentException("Can only peek between 0 and 32 bits.");
+		if (accBits < n)
+			refill();
+		return (int) ((accumulator >>> (accBits - n)) & ((1L << n) - 1));
+	}
+
+	/**
+	 * Consumes n bits.
+	 *
+	 * @param n amount of bits to skip
+	 */
+	public void skip(int n) {
+		if (n < 0)
+			throw new IllegalArgumentException("Cannot skip a negative amount of bits.");
+		while (n > 0) {
+			if (accBits == 0)
+				refill();
+			int k = Math.min(n, accBits);
+			accBits -= k;
+			n -= k;
+		}
+	}
+
+	/**
+	 * Moves to any bit of the data, forgetting what was loaded.
+	 *
+	 * @param bitPosition the bit to read next
+	 */
+	public void seek(long bitPosition) {
+		if (bitPosition < 0 || bitPosition > bitLength)
+			throw new IllegalArgumentException("Position " + bitPosition + " is outside of the data.");
+		nextByte = (int) (bitPosition >>> 3);
+		accumulator = 0;
+		accBits = 0;
+		skip((int) (bitPosition & 7));
+	}
+
+	/**
+	 * Reads and consumes the next n bits.
+	 *
+	 * @param n amount of bits to read, between 0 and 64
+	 * @return the bits read as the lowest bits of a long
+	 */
+	public long read(int n) {
+		if (n > 32) {
+			long high = read(n - 32);
+			return (high << 32) | (read(32) & 0xFFFFFFFFL);
+		}
+		int bits = peek(n);
+		accBits -= n;
+		return bits & ((1L << n) - 1);
+	}
+
+	/**
+	 * Reads and consumes the next bit.
+	 *
+	 * @return true if the bit is 1, false if it is 0
+	 */
+	public boolean readBit() {
+		return read(1) != 0;
+	}
+
+	/**
+	 * Returns the amount of bits consumed so far.
+	 *
+	 * @return the current bit position
+	 */
+	public long position() {
+		return (long) nextByte * 8 - accBits;
+	}
+
+	/**
+	 * Returns the amount of bits that are left to read.
+	 *
+	 * @return the bits left before the end of the data
+	 */
+	public long remaining() {
+		return bitLength - position();
+	}
+
+	/**
+	 * Determines whether there are bits left to read.
+	 *
+	 * @return true if the position is before the end of the data
+	 */
+	public boolean hasMore() {
+		return position() < bitLength;
+	}
+
+	/* Loads bytes until at least 57 bits are available, using zeros past the end of the data */
+	private void refill() {
+		while (accBits <= 56) {
+			int b = nextByte < data.length ? data[nextByte] & 0xFF : 0;
+			nextByte++;
+			accumulator = (accumulator << 8) | b;
+			accBits += 8;
+		}
+	}
+
+}
@@ -0,0 +1,170 @@
+package prj02;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes bits most-significant-first into a growable byte buffer.
+ *
+ * Bits are gathered in a 64-bit accumulator and only moved to the buffer a whole byte at a time,
+ * so writing a Huffman code costs a shift and an or instead of a String concatenation.
+ * The bit order matches the '0'/'1' strings returned by {@link HuffmanCoding#encode(HashTable.Map, String)}.
+ *
+ * A writer created with an OutputStream sends its buffer to the stream whenever it fills up
+ * instead of growing it, so arbitrarily long outputs are written in bounded memory.
+ */
+public class BitWriter {
+
+	private static final int DEFAULT_SIZE = 64;
+	private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+	private byte[] buffer;
+	private int position; // Whole bytes already moved into the buffer
+	private long accumulator; // Pending bits, right aligned
+	private int accBits; // Amount of pending bits in the accumulator
+	private OutputStream sink; // Where full buffers go, null to grow the buffer instead
+	private long drainedBytes; // Bytes already sent to the sink
+
+	public BitWriter() {
+		this(DEFAULT_SIZE);
+	}
+
+	public BitWriter(int initialCapacity) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		buffer = new byte[initialCapacity];
+		position = 0;
+		accumulator = 0;
+		accBits = 0;
+		sink = null;
+		drainedBytes = 0;
+	}
+
+	public BitWriter(OutputStream sink) {
+		this(STREAM_BUFFER_SIZE);
+		if (sink == null)
+			throw new IllegalArgumentException("Output stream cannot be null.");
+		this.sink = sink;
+	}
+
+	/**
+	 * Appends the lowest length bits of the given value, most significant bit first.
+	 *
+	 * @param bits value holding the bits to write in its lowest positions
+	 * @param length amount of bits to write, between 0 and 64
+	 */
+	public void write(long bits, int length) {
+		if (length < 0 || length > 64)
+			throw new IllegalArgumentException("Length must be between 0 and 64.");
+		/* Split long codes so the accumulator never has to shift by 64 or more */
+		if (length > 32) {
+			write(bits >>> 32, length - 32);
+			write(bits, 32);
+			return;
+		}
+		if (accBits + length > 64)
+			flushBytes();
+		accumulator = (accumulator << length) | (bits & ((1L << length) - 1));
+		accBits += length;
+	}
+
+	/**
+	 * Appends a single bit.
+	 *
+	 * @param bit true to write a 1, false to write a 0
+	 */
+	public void writeBit(boolean bit) {
+		write(bit ? 1 : 0, 1);
+	}
+
+	/**
+	 * Returns the amount of bits written so far.
+	 *
+	 * @return the amount of bits written so far
+	 */
+	public long bitLength() {
+		return (drainedBytes + position) * 8 + accBits;
+	}
+
+	/**
+	 * Returns a copy of the bits written so far, with the last byte padded with zeros.
+	 * The writer can keep being used afterwards.
+	 *
+	 * @return the packed bits written so far
+	 */
+	public PackedBits toPackedBits() {
+		if (sink != null)
+			throw new IllegalStateException("The bits of a stream writer were already sent to its stream.");
+		flushBytes();
+		byte[] data = new byte[position + (accBits > 0 ? 1 : 0)];
+		System.arraycopy(buffer, 0, data, 0, position);
+		if (accBits > 0)
+			data[position] = (byte) (accumulator << (8 - accBits));
+		return new PackedBits(data, bitLength());
+	}
+
+	/**
+	 * Sends every whole byte written so far to the output stream and flushes it.
+	 * The last bits stay pending until they complete a byte or finish() is called.
+	 *
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void flush() throws IOException {
+		if (sink == null)
+			throw new IllegalStateException("Only a stream writer can be flushed.");
+		try {
+			flushBytes();
+			drain();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		sink.flush();
+	}
+
+	/**
+	 * Pads the last byte with zeros and sends everything to the output stream.
+	 * The stream is not closed, and nothing else should be written afterwards.
+	 *
+	 * @return the amount of bits written, not counting the padding
+	 * @throws IOException if the stream cannot be written
+	 */
+	public long finish() throws IOException {
+		long bits = bitLength();
+		write(0, (8 - accBits % 8) % 8);
+		flush();
+		return bits;
+	}
+
+	/* Moves every whole byte in the accumulator into the buffer, leaving less than 8 pending bits */
+	private void flushBytes() {
+		while (accBits >= 8) {
+			if (position == buffer.length) {
+				if (sink != null)
+					drain();
+				else
+					reAllocate();
+			}
+			buffer[position++] = (byte) (accumulator >>> (accBits - 8));
+			accBits -= 8;
+		}
+	}
+
+	/* Sends the buffer to the sink, write() cannot throw IOException so it is wrapped */
+	private void drain() {
+		try {
+			sink.write(buffer, 0, position);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		drainedBytes += position;
+		position = 0;
+	}
+
+	private void reAllocate() {
+		byte[] newBuffer = new byte[buffer.length * 2];
+		System.arraycopy(buffer, 0, newBuffer, 0, position);
+		buffer = newBuffer;
+	}
+
+}
@@ -0,0 +1,204 @@
+package prj02;
+
+import java.util.Arrays;
+
+import HashTable.Map;
+import Tree.BTNode;
+
+/**
+ * Canonical Huffman codes: only the code length of every symbol is kept,
+ * and the codes are assigned in order of (length, symbol) from those lengths alone.
+ *
+ * Since the lengths are enough to rebuild the codes, the header that has to travel with the data
+ * only holds the symbols and their lengths, instead of the whole tree or the frequency map.
+ */
+public class CanonicalCode {
+
+	private static final int MAX_LENGTH = 63;
+
+	private final String[] symbols; // Sorted in increasing order
+	private final int[] lengths;
+	private final long[] codes;
+
+	/**
+	 * Assigns canonical codes to the symbols with the given code lengths.
+	 *
+	 * @param symbols the symbols, with no repetitions
+	 * @param lengths the code length of every symbol
+	 */
+	public CanonicalCode(String[] symbols, int[] lengths) {
+		if (symbols.length != lengths.length)
+			throw new IllegalArgumentException("Symbols and lengths must have the same size.");
+		if (symbols.length == 0)
+			throw new IllegalArgumentException("There must be at least one symbol.");
+
+		/* Sort the symbols, carrying their lengths along */
+		Integer[] order = new Integer[symbols.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> symbols[a].compareTo(symbols[b]));
+		this.symbols = new String[symbols.length];
+		this.lengths = new int[symbols.length];
+		for (int i = 0; i < order.length; i++) {
+			this.symbols[i] = symbols[order[i]];
+			this.lengths[i] = lengths[order[i]];
+			if (this.lengths[i] < 0 || this.lengths[i] > MAX_LENGTH)
+				throw new IllegalArgumentException("Code lengths must be between 0 and " + MAX_LENGTH + ".");
+			if (i > 0 && this.symbols[i].equals(this.symbols[i - 1]))
+				throw new IllegalArgumentException("Symbol '" + this.symbols[i] + "' appears twice.");
+		}
+
+		/* Count the codes of every length, then find the first code of every length */
+		long[] count = new long[MAX_LENGTH + 1];
+		for (int length : this.lengths)
+			count[length]++;
+		count[0] = 0;
+		long[] nextCode = new long[MAX_LENGTH + 1];
+		for (int length = 1; length <= MAX_LENGTH; length++)
+			nextCode[length] = (nextCode[length - 1] + count[length - 1]) << 1;
+
+		/* Symbols are already sorted, so within a length the codes go up in symbol order */
+		codes = new long[symbols.length];
+		for (int i = 0; i < codes.length; i++) {
+			if (this.lengths[i] > 0)
+				codes[i] = nextCode[this.lengths[i]]++;
+			if (this.lengths[i] > 0 && (codes[i] >>> this.lengths[i]) != 0)
+				throw new IllegalArgumentException("Code lengths do not describe a prefix code.");
+		}
+	}
+
+	/**
+	 * Takes the code length of every symbol from its depth in the Huffman tree.
+	 *
+	 * @param huffmanRoot the root of the Huffman tree
+	 * @return the canonical code with the same lengths as the tree
+	 */
+	public static CanonicalCode fromTree(BTNode<Integer, String> huffmanRoot) {
+		CodeTable table = CodeTable.fromTree(huffmanRoot);
+		String[] symbols = new String[table.size()];
+		int[] lengths = new int[table.size()];
+		for (int id = 0; id < table.size(); id++) {
+			symbols[id] = table.getSymbol(id);
+			lengths[id] = table.getLength(id);
+		}
+		return new CanonicalCode(symbols, lengths);
+	}
+
+	/**
+	 * Reads a header written by writeHeader() and rebuilds the codes from it.
+	 *
+	 * @param in the reader positioned at the start of the header
+	 * @return the canonical code described by the header
+	 */
+	public static CanonicalCode readHeader(BitReader in) {
+		/* Every symbol takes at least 7 bits, a gap or length of 1 bit and a code length of 6 */
+		long size = readGamma(in) - 1;
+		if (size > in.remaining() / 7)
+			throw new IllegalArgumentException("Header is truncated or corrupt.");
+		boolean singleChars = in.readBit();
+		String[] symbols = new String[(int) size];
+		int[] lengths = new int[(int) size];
+		long previous = -1;
+		for (int i = 0; i < size; i++) {
+			if (singleChars) {
+				previous += readGamma(in);
+				if (previous > Character.MAX_VALUE)
+					throw new IllegalArgumentException("Invalid symbol in header.");
+				symbols[i] = String.valueOf((char) previous);
+			} else {
+				long length = readGamma(in) - 1;
+				if (length > in.remaining() / 16)
+					throw new IllegalArgumentException("Header is truncated or corrupt.");
+				char[] chars = new char[(int) length];
+				for (int j = 0; j < chars.length; j++)
+					chars[j] = (char) in.read(16);
+				symbols[i] = new String(chars);
+			}
+			lengths[i] = (int) in.read(6);
+		}
+		if (in.remaining() < 0)
+			throw new IllegalArgumentException("Header is truncated or corrupt.");
+		return new CanonicalCode(symbols, lengths);
+	}
+
+	/**
+	 * Writes the symbols and their code lengths, which is all a decoder needs to rebuild the codes.
+	 *
+	 * When every symbol is a single character, only the gap to the previous character is written,
+	 * so a typical text alphabet costs a few bits per symbol plus 6 bits for its length.
+	 *
+	 * @param out where the header is written
+	 */
+	public void writeHeader(BitWriter out) {
+		boolean singleChars = true;
+		for (String s : symbols)
+			singleChars &= s.length() == 1;
+
+		writeGamma(out, symbols.length + 1);
+		out.writeBit(singleChars);
+		int previous = -1;
+		for (int i = 0; i < symbols.length; i++) {
+			if (singleChars) {
+				writeGamma(out, symbols[i].charAt(0) - previous);
+				previous = symbols[i].charAt(0);
+			} else {
+				writeGamma(out, symbols[i].length() + 1);
+				for (int j = 0; j < symbols[i].length(); j++)
+					out.write(symbols[i].charAt(j), 16);
+			}
+			out.write(lengths[i], 6);
+		}
+	}
+
+	public int size() {
+		return symbols.length;
+	}
+
+	public String getSymbol(int i) {
+		return symbols[i];
+	}
+
+	public int getLength(int i) {
+		return lengths[i];
+	}
+
+	public long getCode(int i) {
+		return codes[i];
+	}
+
+	public CodeTable toCodeTable() {
+		return new CodeTable(symbols.clone(), codes.clone(), lengths.clone());
+	}
+
+	/**
+	 * Returns the codes as a map of symbols to '0'/'1' strings, like the one returned by huffman_code().
+	 *
+	 * @return a map with the symbols as keys and their canonical code as the value of each key
+	 */
+	public Map<String, String> toCodeMap() {
+		return toCodeTable().toCodeMap();
+	}
+
+	/* Elias gamma code: the bit length of the value minus one in zeros, then the value. Values must be at least 1 */
+	private static void writeGamma(BitWriter out, long value) {
+		int bits = 64 - Long.numberOfLeadingZeros(value);
+		out.write(0, bits - 1);
+		out.write(value, bits);
+	}
+
+	private static long readGamma(BitReader in) {
+		int zeros = 0;
+		while (true) {
+			if (!in.hasMore())
+				throw new IllegalArgumentException("Header is truncated or corrupt.");
+			if (in.readBit())
+				break;
+			if (++zeros > 62)
+				throw new IllegalArgumentException("Invalid number in header.");
+		}
+		if (in.remaining() < zeros)
+			throw new IllegalArgumentException("Header is truncated or corrupt.");
+		return (1L << zeros) | in.read(zeros);
+	}
+
+}
@@ -0,0 +1,94 @@
+package prj02;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a whole text file, line breaks included, through one reusable buffer of fixed size.
+ *
+ * Every call to next() refills the same char array, so any file can be counted and encoded
+ * chunk by chunk in bounded memory, no matter its size or how many lines it has.
+ */
+public class ChunkedReader implements Closeable {
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/** Receives every chunk of the input, the chunk array is reused after accept() returns */
+	public interface ChunkConsumer {
+		void accept(char[] chunk, int length) throws IOException;
+	}
+
+	private final Reader reader;
+	private final char[] buffer;
+
+	public ChunkedReader(Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+
+	public ChunkedReader(Reader reader, int bufferSize) {
+		if (reader == null)
+			throw new IllegalArgumentException("Reader cannot be null.");
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size must be at least 1");
+		this.reader = reader;
+		this.buffer = new char[bufferSize];
+	}
+
+	/**
+	 * Opens a UTF-8 file for reading.
+	 *
+	 * @param path the path of the file, including its directory
+	 * @return the reader for the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static ChunkedReader open(String path) throws IOException {
+		return new ChunkedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Fills the buffer with the next chunk of the input. It is only partially filled at the end of the input.
+	 *
+	 * @return the amount of chars read into the buffer, or -1 if the input is over
+	 * @throws IOException if the input cannot be read
+	 */
+	public int next() throws IOException {
+		int length = 0;
+		while (length < buffer.length) {
+			int read = reader.read(buffer, length, buffer.length - length);
+			if (read < 0)
+				break;
+			length += read;
+		}
+		return length == 0 ? -1 : length;
+	}
+
+	/**
+	 * Returns the buffer filled by next().
+	 *
+	 * @return the buffer, only valid up to the length returned by next()
+	 */
+	public char[] buffer() {
+		return buffer;
+	}
+
+	/**
+	 * Passes every remaining chunk of the input to the consumer.
+	 *
+	 * @param consumer receives every chunk
+	 * @throws IOException if the input cannot be read or the consumer fails
+	 */
+	public void forEachChunk(ChunkConsumer consumer) throws IOException {
+		for (int length = next(); length > 0; length = next())
+			consumer.accept(buffer, length);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,187 @@
+package prj02;
+
+import java.util.Arrays;
+
+/**
+ * Canonical Huffman codes over Unicode code points, so a supplementary character (an emoji, a rare CJK ideograph)
+ * is one symbol with one code instead of two surrogate halves.
+ *
+ * Every stage works on dense int ids: code points are counted in a {@link CodePointHistogram}, the code lengths
+ * are computed from a long[] of counts, codes are encoded through a {@link CodePointMap} and decoded by a
+ * {@link TableDecoder}. Strings only appear once per distinct code point, for the canonical code header.
+ */
+public class CodePointCode {
+
+	private final CanonicalCode canonical;
+	private final int[] codePoints; // Code point of every id, ids in canonical order
+	private final CodePointMap ids;
+	private final TableDecoder decoder; // Null for a lone symbol, which has an empty code
+
+	/**
+	 * Uses a canonical code whose symbols are single code points.
+	 *
+	 * @param canonical the code, as built by fromHistogram() or read from a header
+	 * @throws IllegalArgumentException if a symbol is not a single code point
+	 */
+	public CodePointCode(CanonicalCode canonical) {
+		this.canonical = canonical;
+		this.codePoints = new int[canonical.size()];
+		this.ids = new CodePointMap();
+		for (int id = 0; id < codePoints.length; id++) {
+			String symbol = canonical.getSymbol(id);
+			if (symbol.isEmpty() || Character.charCount(symbol.codePointAt(0)) != symbol.length())
+				throw new IllegalArgumentException("Symbol '" + symbol + "' is not a single code point.");
+			codePoints[id] = symbol.codePointAt(0);
+			ids.put(codePoints[id], id);
+		}
+		this.decoder = canonical.size() == 1 && canonical.getLength(0) == 0 ? null : new TableDecoder(canonical.toCodeTable());
+	}
+
+	public static CodePointCode fromText(CharSequence text) {
+		CodePointHistogram histogram = new CodePointHistogram();
+		histogram.addCodePoints(text);
+		return fromHistogram(histogram);
+	}
+
+	/**
+	 * Builds the Huffman code of the counted code points.
+	 *
+	 * @param histogram the counts, at least one code point
+	 * @return the canonical code of the code points
+	 */
+	public static CodePointCode fromHistogram(CodePointHistogram histogram) {
+		int[] codePoints = histogram.codePoints();
+		long[] weights = new long[codePoints.length];
+		for (int id = 0; id < codePoints.length; id++)
+			weights[id] = histogram.count(codePoints[id]);
+		int[] lengths = huffmanLengths(weights);
+		String[] symbols = new String[codePoints.length];
+		for (int id = 0; id < codePoints.length; id++)
+			symbols[id] = new String(Character.toChars(codePoints[id]));
+		return new CodePointCode(new CanonicalCode(symbols, lengths));
+	}
+
+	/**
+	 * Computes Huffman code lengths with the two queue method: once the weights are sorted, the merged nodes
+	 * are created in increasing order of weight, so the two smallest nodes are always at the head of either the
+	 * sorted leaves or the merged nodes. Only primitive arrays are used, indexed by id.
+	 *
+	 * @param weights the frequency of every symbol, all bigger than 0 and smaller than 2^42
+	 * @return the code length of every symbol, 0 if there is a lone symbol, never over 63
+	 */
+	public static int[] huffmanLengths(long[] weights) {
+		int n = weights.length;
+		if (n == 0)
+			throw new IllegalArgumentException("There must be at least one symbol.");
+		int[] lengths = new int[n];
+		if (n == 1)
+			return lengths;
+
+		/* Sort the ids by weight, packed with their weight in one long */
+		long[] sorted = new long[n];
+		for (int id = 0; id < n; id++) {
+			if (weights[id] <= 0 || weights[id] >= (1L << 42))
+				throw new IllegalArgumentException("Weights must be between 1 and 2^42 - 1.");
+			sorted[id] = (weights[id] << 21) | id;
+		}
+		Arrays.sort(sorted);
+
+		/* Nodes 0 to n - 1 are the sorted leaves, n to 2n - 2 the merged nodes in creation order */
+		long[] merged = new long[n - 1];
+		int[] parents = new int[2 * n - 1];
+		int leaf = 0, head = 0;
+		for (int k = 0; k < n - 1; k++) {
+			long sum = 0;
+			for (int pick = 0; pick < 2; pick++) {
+				if (head >= k || (leaf < n && (sorted[leaf] >>> 21) <= merged[head])) {
+					sum += sorted[leaf] >>> 21;
+					parents[leaf++] = n + k;
+				} else {
+					sum += merged[head];
+					parents[n + head++] = n + k;
+				}
+			}
+			merged[k] = sum;
+		}
+
+		/* Parents come after their children, so depths can be filled from the root down */
+		int[] depths = new int[2 * n - 1];
+		for (int node = 2 * n - 3; node >= 0; node--)
+			depths[node] = depths[parents[node]] + 1;
+		int longest = 0;
+		for (int i = 0; i < n; i++) {
+			lengths[(int) (sorted[i] & ((1 << 21) - 1))] = depths[i];
+			longest = Math.max(longest, depths[i]);
+		}
+		return longest <= 63 ? lengths : LengthLimitedCode.lengths(weights, 63);
+	}
+
+	/**
+	 * Writes the code of every code point of the text into the bit writer.
+	 *
+	 * @param text the text to encode
+	 * @param out where the codes are written
+	 * @throws IllegalArgumentException if a code point has no code
+	 */
+	public void encode(CharSequence text, BitWriter out) {
+		for (int i = 0; i < text.length(); ) {
+			int codePoint = Character.codePointAt(text, i);
+			int id = ids.get(codePoint);
+			if (id < 0)
+				throw new IllegalArgumentException("Code point U+" + Integer.toHexString(codePoint).toUpperCase() + " has no Huffman code.");
+			out.write(canonical.getCode(id), canonical.getLength(id));
+			i += Character.charCount(codePoint);
+		}
+	}
+
+	/**
+	 * Decodes a known amount of code points and appends them to the result.
+	 *
+	 * @param in the reader with the encoded bits
+	 * @param count the amount of code points to decode
+	 * @param out where the decoded code points are appended
+	 * @throws IllegalArgumentException if the bits are not a sequence of whole codes
+	 */
+	public void decode(BitReader in, long count, StringBuilder out) {
+		long end = in.position() + in.remaining();
+		for (long i = 0; i < count; i++)
+			out.appendCodePoint(codePoints[decoder == null ? 0 : decoder.decodeSymbol(in)]);
+		if (in.position() > end)
+			throw new IllegalArgumentException("Encoded data ends in the middle of a code.");
+	}
+
+	public void writeHeader(BitWriter out) {
+		canonical.writeHeader(out);
+	}
+
+	public static CodePointCode readHeader(BitReader in) {
+		return new CodePointCode(CanonicalCode.readHeader(in));
+	}
+
+	public CanonicalCode getCanonicalCode() {
+		return canonical;
+	}
+
+	public int size() {
+		return codePoints.length;
+	}
+
+	public int getCodePoint(int id) {
+		return codePoints[id];
+	}
+
+	public int getLength(int id) {
+		return canonical.getLength(id);
+	}
+
+	/**
+	 * Returns the id of a code point.
+	 *
+	 * @param codePoint the code point to look for
+	 * @return its id, or -1 if it has no code
+	 */
+	public int idOf(int codePoint) {
+		return ids.get(codePoint);
+	}
+
+}
@@ -0,0 +1,78 @@
+package prj02;
+
+/**
+ * Counts Unicode code points in primitive arrays, with no allocation per counted symbol.
+ *
+ * Surrogate pairs are counted as the one code point they stand for, unlike {@link SymbolHistogram}
+ * which counts every char on its own. The 0x110000 possible code points are split in blocks of 256 counters
+ * that are only allocated once a code point of that block shows up.
+ */
+public class CodePointHistogram {
+
+	private static final int BLOCK_BITS = 8;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+	private static final int BLOCKS = (Character.MAX_CODE_POINT + 1) >>> BLOCK_BITS;
+
+	private final long[][] blocks;
+
+	public CodePointHistogram() {
+		blocks = new long[BLOCKS][];
+	}
+
+	public void add(int codePoint) {
+		block(codePoint >>> BLOCK_BITS)[codePoint & (BLOCK_SIZE - 1)]++;
+	}
+
+	/**
+	 * Counts the code points of the text. A surrogate without its pair is counted as a code point of its own.
+	 *
+	 * @param text the text to count
+	 */
+	public void addCodePoints(CharSequence text) {
+		for (int i = 0; i < text.length(); ) {
+			int codePoint = Character.codePointAt(text, i);
+			long[] block = blocks[codePoint >>> BLOCK_BITS];
+			if (block == null)
+				block = block(codePoint >>> BLOCK_BITS);
+			block[codePoint & (BLOCK_SIZE - 1)]++;
+			i += Character.charCount(codePoint);
+		}
+	}
+
+	public long count(int codePoint) {
+		long[] block = blocks[codePoint >>> BLOCK_BITS];
+		return block == null ? 0 : block[codePoint & (BLOCK_SIZE - 1)];
+	}
+
+	/**
+	 * Returns the code points counted at least once.
+	 *
+	 * @return the code points in increasing order
+	 */
+	public int[] codePoints() {
+		int distinct = 0;
+		for (long[] block : blocks)
+			if (block != null)
+				for (long count : block)
+					if (count > 0)
+						distinct++;
+		int[] codePoints = new int[distinct];
+		int next = 0;
+		for (int b = 0; b < BLOCKS; b++) {
+			if (blocks[b] == null)
+				continue;
+			for (int i = 0; i < BLOCK_SIZE; i++)
+				if (blocks[b][i] > 0)
+					codePoints[next++] = (b << BLOCK_BITS) | i;
+		}
+		return codePoints;
+	}
+
+	/* Returns the block of counters, allocating it the first time */
+	private long[] block(int b) {
+		if (blocks[b] == null)
+			blocks[b] = new long[BLOCK_SIZE];
+		return blocks[b];
+	}
+
+}
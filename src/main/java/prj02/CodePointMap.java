@@ -0,0 +1,48 @@
+package prj02;
+
+import java.util.Arrays;
+
+/**
+ * Maps Unicode code points to dense ids, so code points can index small arrays.
+ *
+ * Ids are kept in blocks of 256 ints that are only allocated once a code point of that block is added,
+ * so a text using a few scripts takes a few blocks instead of a table for every possible code point.
+ */
+public class CodePointMap {
+
+	private static final int BLOCK_BITS = 8;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+	private final int[][] blocks = new int[(Character.MAX_CODE_POINT + 1) >>> BLOCK_BITS][];
+
+	/**
+	 * Gives a code point its id.
+	 *
+	 * @param codePoint the code point
+	 * @param id the id, 0 or more
+	 */
+	public void put(int codePoint, int id) {
+		if (codePoint < 0 || codePoint > Character.MAX_CODE_POINT)
+			throw new IllegalArgumentException("Invalid code point " + codePoint + ".");
+		if (id < 0)
+			throw new IllegalArgumentException("Ids cannot be negative.");
+		int b = codePoint >>> BLOCK_BITS;
+		if (blocks[b] == null) {
+			blocks[b] = new int[BLOCK_SIZE];
+			Arrays.fill(blocks[b], -1);
+		}
+		blocks[b][codePoint & (BLOCK_SIZE - 1)] = id;
+	}
+
+	/**
+	 * Returns the id of a code point.
+	 *
+	 * @param codePoint the code point
+	 * @return its id, or -1 if it has none
+	 */
+	public int get(int codePoint) {
+		int[] block = blocks[codePoint >>> BLOCK_BITS];
+		return block == null ? -1 : block[codePoint & (BLOCK_SIZE - 1)];
+	}
+
+}
@@ -0,0 +1,211 @@
+package prj02;
+
+import java.util.Arrays;
+
+import HashTable.HashFunction;
+import HashTable.HashTableSC;
+import HashTable.Map;
+import HashTable.PolynomialHashFunction;
+import List.List;
+import Tree.BTNode;
+
+/**
+ * Huffman codes stored as (bits, length) pairs in parallel arrays, indexed by a dense symbol id.
+ *
+ * Single character symbols are also indexed by their char value, so encoding a character
+ * is two array reads instead of a hash table lookup and a String allocation.
+ */
+public class CodeTable {
+
+	private final String[] symbols;
+	private final long[] codes;
+	private final int[] lengths;
+	private final int[] charIds; // charIds[c] is the id of the symbol c, or -1 if c is not in the table
+
+	public CodeTable(String[] symbols, long[] codes, int[] lengths) {
+		if (symbols.length != codes.length || symbols.length != lengths.length)
+			throw new IllegalArgumentException("Symbols, codes and lengths must have the same size.");
+		this.symbols = symbols;
+		this.codes = codes;
+		this.lengths = lengths;
+
+		/* Index the single character symbols by their char value */
+		int maxChar = -1;
+		for (String s : symbols)
+			if (s.length() == 1)
+				maxChar = Math.max(maxChar, s.charAt(0));
+		charIds = new int[maxChar + 1];
+		for (int i = 0; i < charIds.length; i++)
+			charIds[i] = -1;
+		for (int id = 0; id < symbols.length; id++) {
+			if (lengths[id] < 0 || lengths[id] > 64)
+				throw new IllegalArgumentException("Code lengths must be between 0 and 64.");
+			if (symbols[id].length() == 1)
+				charIds[symbols[id].charAt(0)] = id;
+		}
+	}
+
+	/**
+	 * Builds the code table of a Huffman tree in a single depth-first walk, with an explicit stack.
+	 * Every leaf gets the path that leads to it as its code: a 0 bit for every left child and a 1 bit for every right child.
+	 *
+	 * @param huffmanRoot the root of the Huffman tree
+	 * @return the code table with every leaf's code, in left to right order
+	 * @throws IllegalArgumentException if a leaf is deeper than 64 levels
+	 */
+	public static CodeTable fromTree(BTNode<Integer, String> huffmanRoot) {
+		/* A path is at most 64 levels deep, and the stack never holds more than one entry per level plus one */
+		@SuppressWarnings("unchecked")
+		BTNode<Integer, String>[] stackNodes = (BTNode<Integer, String>[]) new BTNode<?, ?>[66];
+		long[] stackCodes = new long[66];
+		int[] stackDepths = new int[66];
+		int top = 0;
+		stackNodes[0] = huffmanRoot;
+
+		String[] symbols = new String[16];
+		long[] codes = new long[16];
+		int[] lengths = new int[16];
+		int leaves = 0;
+		while (top >= 0) {
+			BTNode<Integer, String> node = stackNodes[top];
+			long code = stackCodes[top];
+			int depth = stackDepths[top];
+			top--;
+			if (node.getLeftChild() == null && node.getRightChild() == null) {
+				if (leaves == symbols.length) {
+					symbols = Arrays.copyOf(symbols, leaves * 2);
+					codes = Arrays.copyOf(codes, leaves * 2);
+					lengths = Arrays.copyOf(lengths, leaves * 2);
+				}
+				symbols[leaves] = node.getValue();
+				codes[leaves] = code;
+				lengths[leaves] = depth;
+				leaves++;
+				continue;
+			}
+			if (depth == 64)
+				throw new IllegalArgumentException("Codes longer than 64 bits are not supported.");
+			/* Right child first, so the left child is visited first */
+			stackNodes[++top] = node.getRightChild();
+			stackCodes[top] = (code << 1) | 1;
+			stackDepths[top] = depth + 1;
+			stackNodes[++top] = node.getLeftChild();
+			stackCodes[top] = code << 1;
+			stackDepths[top] = depth + 1;
+		}
+		return new CodeTable(Arrays.copyOf(symbols, leaves), Arrays.copyOf(codes, leaves),
+				Arrays.copyOf(lengths, leaves));
+	}
+
+	/**
+	 * Builds a code table from a map of symbols to Huffman code strings, like the one returned by huffman_code().
+	 *
+	 * @param codeMap the map with symbols as keys and their Huffman code as values
+	 * @return the code table with the same codes
+	 */
+	public static CodeTable fromCodeMap(Map<String, String> codeMap) {
+		List<String> keys = codeMap.getKeys();
+		String[] symbols = new String[keys.size()];
+		long[] codes = new long[keys.size()];
+		int[] lengths = new int[keys.size()];
+		int id = 0;
+		for (String symbol : keys) {
+			String code = codeMap.get(symbol);
+			if (code.length() > 64)
+				throw new IllegalArgumentException("Codes longer than 64 bits are not supported.");
+			symbols[id] = symbol;
+			codes[id] = code.isEmpty() ? 0 : Long.parseUnsignedLong(code, 2);
+			lengths[id] = code.length();
+			id++;
+		}
+		return new CodeTable(symbols, codes, lengths);
+	}
+
+	public int size() {
+		return symbols.length;
+	}
+
+	public String getSymbol(int id) {
+		return symbols[id];
+	}
+
+	public long getCode(int id) {
+		return codes[id];
+	}
+
+	public int getLength(int id) {
+		return lengths[id];
+	}
+
+	/**
+	 * Returns the codes as a map of symbols to '0'/'1' strings, like the one returned by huffman_code().
+	 *
+	 * @return a map with the symbols as keys and their code as the value of each key
+	 */
+	public Map<String, String> toCodeMap() {
+		HashFunction<String> hash = new PolynomialHashFunction<String>();
+		Map<String, String> symCode = new HashTableSC<String, String>(Math.max(1, symbols.length * 2), hash);
+		for (int id = 0; id < symbols.length; id++)
+			symCode.put(symbols[id], codeString(codes[id], lengths[id]));
+		return symCode;
+	}
+
+	/**
+	 * Writes a code as a string of '0' and '1' characters, keeping the leading zeros.
+	 *
+	 * @param code the code in the lowest bits
+	 * @param length the amount of bits in the code
+	 * @return the code as a string
+	 */
+	public static String codeString(long code, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++)
+			chars[i] = ((code >>> (length - 1 - i)) & 1) == 1 ? '1' : '0';
+		return new String(chars);
+	}
+
+	/**
+	 * Returns the id of a single character symbol.
+	 *
+	 * @param c the character to look for
+	 * @return the id of the symbol, or -1 if it is not in the table
+	 */
+	public int idOf(char c) {
+		return c < charIds.length ? charIds[c] : -1;
+	}
+
+	/**
+	 * Writes the code of every character of the input into the bit writer.
+	 *
+	 * @param input the characters to encode
+	 * @param out where the codes are written
+	 * @throws IllegalArgumentException if a character has no code in this table
+	 */
+	public void encode(CharSequence input, BitWriter out) {
+		for (int i = 0; i < input.length(); i++) {
+			int id = idOf(input.charAt(i));
+			if (id < 0)
+				throw new IllegalArgumentException("Symbol '" + input.charAt(i) + "' has no Huffman code.");
+			out.write(codes[id], lengths[id]);
+		}
+	}
+
+	/**
+	 * Writes the code of the characters chars[offset] to chars[offset + length - 1] into the bit writer.
+	 *
+	 * @param chars the array with the characters to encode
+	 * @param offset position of the first character to encode
+	 * @param length amount of characters to encode
+	 * @param out where the codes are written
+	 * @throws IllegalArgumentException if a character has no code in this table
+	 */
+	public void encode(char[] chars, int offset, int length, BitWriter out) {
+		for (int i = offset; i < offset + length; i++) {
+			int id = idOf(chars[i]);
+			if (id < 0)
+				throw new IllegalArgumentException("Symbol '" + chars[i] + "' has no Huffman code.");
+			out.write(codes[id], lengths[id]);
+		}
+	}
+
+}
@@ -0,0 +1,213 @@
+package prj02;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import HashTable.Map;
+
+/**
+ * A bounded cache of ready built code and decode tables, so payloads with nearly the same statistics
+ * do not rebuild the Huffman tree every time.
+ *
+ * Tables are found by a fingerprint of the frequency distribution: its symbols with their ideal code length
+ * -log2(p) rounded to a whole bit, so distributions that only differ by noise usually share a fingerprint
+ * (those whose lengths straddle a rounding boundary get an entry of their own). A cached table
+ * is only reused if it can encode every symbol and its estimated cost stays close to the entropy: its loss against
+ * the entropy may exceed the loss it had on the distribution it was built for by at most maxLoss.
+ * Otherwise a new table is built and replaces it. The least recently used table is evicted once the cache is full.
+ */
+public class CodeTableCache {
+
+	public static final int DEFAULT_CAPACITY = 64;
+	public static final double DEFAULT_MAX_LOSS = 0.01;
+
+	/** The tables built for one frequency distribution */
+	public static class Entry {
+		private final CanonicalCode code;
+		private final CodeTable table;
+		private final TableDecoder decoder;
+		private double ownLoss; // Loss against the entropy on the distribution it was built for
+		private Map<String, String> codeMap;
+
+		Entry(CanonicalCode code) {
+			this.code = code;
+			this.table = code.toCodeTable();
+			this.decoder = code.size() == 1 && code.getLength(0) == 0 ? null : new TableDecoder(table);
+		}
+
+		public CanonicalCode getCode() {
+			return code;
+		}
+
+		public CodeTable getTable() {
+			return table;
+		}
+
+		/** @return the decoder of the table, null for a lone symbol, which has an empty code */
+		public TableDecoder getDecoder() {
+			return decoder;
+		}
+
+		/** @return the codes as a map of symbols to '0'/'1' strings, like the one returned by huffman_code() */
+		public synchronized Map<String, String> getCodeMap() {
+			if (codeMap == null)
+				codeMap = code.toCodeMap();
+			return codeMap;
+		}
+	}
+
+	private final int capacity;
+	private final double maxLoss;
+	private final LinkedHashMap<String, Entry> entries;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public CodeTableCache() {
+		this(DEFAULT_CAPACITY, DEFAULT_MAX_LOSS);
+	}
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param capacity the most tables kept
+	 * @param maxLoss how much more than its own loss against the entropy a reused table may lose, 0.01 being 1%
+	 */
+	public CodeTableCache(int capacity, double maxLoss) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		if (maxLoss < 0)
+			throw new IllegalArgumentException("Maximum loss cannot be negative.");
+		this.capacity = capacity;
+		this.maxLoss = maxLoss;
+		/* Access order, so the eldest entry is the least recently used one */
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(java.util.Map.Entry<String, Entry> eldest) {
+				if (size() <= CodeTableCache.this.capacity)
+					return false;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Returns the tables for a frequency distribution, reusing cached ones if they are close enough.
+	 *
+	 * @param fD the frequency distribution of the payload
+	 * @return the tables to encode and decode the payload with
+	 */
+	public synchronized Entry get(Map<String, Integer> fD) {
+		String[] symbols = sortedSymbols(fD);
+		long total = 0;
+		for (String symbol : symbols)
+			total += fD.get(symbol);
+		String fingerprint = fingerprint(fD, symbols, total);
+		double entropy = entropyBits(fD, symbols, total);
+
+		Entry entry = entries.get(fingerprint);
+		if (entry != null) {
+			long bits = bits(entry.table, fD, symbols);
+			if (bits >= 0 && loss(bits, entropy) <= entry.ownLoss + maxLoss) {
+				hits++;
+				return entry;
+			}
+		}
+
+		misses++;
+		CanonicalCode code = CanonicalCode.fromTree(HuffmanCoding.huffman_tree(fD));
+		Entry built = new Entry(code);
+		built.ownLoss = loss(bits(built.table, fD, symbols), entropy);
+		entries.put(fingerprint, built);
+		return built;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the fingerprint of a frequency distribution: every symbol with its ideal code length
+	 * rounded to a whole bit.
+	 *
+	 * @param fD the frequency distribution
+	 * @return the fingerprint, equal for distributions that only differ by small changes in the frequencies
+	 */
+	public static String fingerprint(Map<String, Integer> fD) {
+		String[] symbols = sortedSymbols(fD);
+		long total = 0;
+		for (String symbol : symbols)
+			total += fD.get(symbol);
+		return fingerprint(fD, symbols, total);
+	}
+
+	private static String fingerprint(Map<String, Integer> fD, String[] symbols, long total) {
+		StringBuilder sb = new StringBuilder();
+		for (String symbol : symbols) {
+			long bits = Math.round(log2((double) total / fD.get(symbol)));
+			/* Symbols can hold any char, so their length goes first to keep fingerprints unambiguous */
+			sb.append((char) symbol.length()).append(symbol).append((char) bits);
+		}
+		return sb.toString();
+	}
+
+	private static String[] sortedSymbols(Map<String, Integer> fD) {
+		String[] symbols = new String[fD.size()];
+		int i = 0;
+		for (String symbol : fD.getKeys())
+			symbols[i++] = symbol;
+		Arrays.sort(symbols);
+		return symbols;
+	}
+
+	/* Bits the table takes to encode the distribution, -1 if a symbol has no code */
+	private static long bits(CodeTable table, Map<String, Integer> fD, String[] symbols) {
+		long bits = 0;
+		int id = 0;
+		/* The table comes from a canonical code, whose symbols are sorted as well */
+		for (String symbol : symbols) {
+			while (id < table.size() && table.getSymbol(id).compareTo(symbol) < 0)
+				id++;
+			if (id == table.size() || !table.getSymbol(id).equals(symbol))
+				return -1;
+			bits += (long) fD.get(symbol) * table.getLength(id);
+		}
+		return bits;
+	}
+
+	private static double entropyBits(Map<String, Integer> fD, String[] symbols, long total) {
+		double bits = 0;
+		for (String symbol : symbols)
+			bits += fD.get(symbol) * log2((double) total / fD.get(symbol));
+		return bits;
+	}
+
+	/* Relative loss against the entropy, a lone symbol has no entropy and loses nothing */
+	private static double loss(long bits, double entropy) {
+		return entropy <= 0 ? 0 : (bits - entropy) / entropy;
+	}
+
+	private static double log2(double x) {
+		return Math.log(x) / Math.log(2);
+	}
+
+}
@@ -0,0 +1,178 @@
+package prj02;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The seek index of a {@link HuffmanContainer}: where every block starts, in chars and in the file,
+ * and the bit offset of every granularity-th char inside each block.
+ *
+ * <pre>
+ * footer = granularity (4 bytes) block count (4 bytes) block*
+ * block  = char offset (8 bytes) file offset (8 bytes) original length (4 bytes) payload length (4 bytes)
+ *          header bits (4 bytes) point count (4 bytes) point bit offset (8 bytes)*
+ * </pre>
+ */
+public class ContainerIndex {
+
+	private final int granularity;
+	private int blockCount;
+	private long[] charOffsets;
+	private long[] fileOffsets;
+	private int[] originalLengths;
+	private int[] payloadLengths;
+	private int[] headerBits;
+	private long[][] points;
+
+	public ContainerIndex(int granularity) {
+		if (granularity < 1)
+			throw new IllegalArgumentException("Index granularity must be at least 1.");
+		this.granularity = granularity;
+		this.blockCount = 0;
+		this.charOffsets = new long[16];
+		this.fileOffsets = new long[16];
+		this.originalLengths = new int[16];
+		this.payloadLengths = new int[16];
+		this.headerBits = new int[16];
+		this.points = new long[16][];
+	}
+
+	/**
+	 * Adds the next block of the container.
+	 *
+	 * @param fileOffset where the block starts in the file, at its original length
+	 * @param block the block, as it was just encoded with this index's granularity
+	 */
+	void addBlock(long fileOffset, HuffmanContainer.Block block) {
+		if (block.getIndexPoints() == null)
+			throw new IllegalArgumentException("Block has no index points.");
+		add(length(), fileOffset, block.getOriginalLength(), block.getPayload().length, block.getHeaderBits(),
+				block.getIndexPoints());
+	}
+
+	private void add(long charOffset, long fileOffset, int originalLength, int payloadLength, int bits, long[] blockPoints) {
+		if (blockCount == charOffsets.length) {
+			int capacity = 2 * blockCount;
+			charOffsets = Arrays.copyOf(charOffsets, capacity);
+			fileOffsets = Arrays.copyOf(fileOffsets, capacity);
+			originalLengths = Arrays.copyOf(originalLengths, capacity);
+			payloadLengths = Arrays.copyOf(payloadLengths, capacity);
+			headerBits = Arrays.copyOf(headerBits, capacity);
+			points = Arrays.copyOf(points, capacity);
+		}
+		charOffsets[blockCount] = charOffset;
+		fileOffsets[blockCount] = fileOffset;
+		originalLengths[blockCount] = originalLength;
+		payloadLengths[blockCount] = payloadLength;
+		headerBits[blockCount] = bits;
+		points[blockCount] = blockPoints;
+		blockCount++;
+	}
+
+	void write(DataOutput out) throws IOException {
+		out.writeInt(granularity);
+		out.writeInt(blockCount);
+		for (int b = 0; b < blockCount; b++) {
+			out.writeLong(charOffsets[b]);
+			out.writeLong(fileOffsets[b]);
+			out.writeInt(originalLengths[b]);
+			out.writeInt(payloadLengths[b]);
+			out.writeInt(headerBits[b]);
+			out.writeInt(points[b].length);
+			for (long point : points[b])
+				out.writeLong(point);
+		}
+	}
+
+	static ContainerIndex read(DataInput in) throws IOException {
+		int granularity = in.readInt();
+		int count = in.readInt();
+		if (granularity < 1 || count < 0)
+			throw new IOException("Corrupt container index.");
+		ContainerIndex index = new ContainerIndex(granularity);
+		for (int b = 0; b < count; b++) {
+			long charOffset = in.readLong();
+			long fileOffset = in.readLong();
+			int originalLength = in.readInt();
+			int payloadLength = in.readInt();
+			int bits = in.readInt();
+			int pointCount = in.readInt();
+			if (charOffset != index.length() || originalLength < 1 || payloadLength < 0 || bits < 0
+					|| pointCount != (originalLength - 1) / granularity)
+				throw new IOException("Corrupt container index.");
+			long[] blockPoints = new long[pointCount];
+			for (int i = 0; i < pointCount; i++)
+				blockPoints[i] = in.readLong();
+			index.add(charOffset, fileOffset, originalLength, payloadLength, bits, blockPoints);
+		}
+		return index;
+	}
+
+	/**
+	 * Finds the block holding a char.
+	 *
+	 * @param charOffset offset of the char in the uncompressed text
+	 * @return the number of the block holding it
+	 */
+	public int blockOf(long charOffset) {
+		if (charOffset < 0 || charOffset >= length())
+			throw new IndexOutOfBoundsException("Offset " + charOffset + " is outside of the text.");
+		int low = 0, high = blockCount - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (charOffsets[mid] <= charOffset)
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the bit offset, inside a block's payload, of the nearest index point at or before a char.
+	 *
+	 * @param block the number of the block
+	 * @param inBlock offset of the char inside the block
+	 * @return the bit offset of the code of char (inBlock / granularity) * granularity
+	 */
+	public long pointBefore(int block, int inBlock) {
+		int point = inBlock / granularity;
+		return point == 0 ? headerBits[block] : points[block][point - 1];
+	}
+
+	/** @return the amount of chars in the uncompressed text */
+	public long length() {
+		return blockCount == 0 ? 0 : charOffsets[blockCount - 1] + originalLengths[blockCount - 1];
+	}
+
+	public int getGranularity() {
+		return granularity;
+	}
+
+	public int blockCount() {
+		return blockCount;
+	}
+
+	public long getCharOffset(int block) {
+		return charOffsets[block];
+	}
+
+	public long getFileOffset(int block) {
+		return fileOffsets[block];
+	}
+
+	public int getOriginalLength(int block) {
+		return originalLengths[block];
+	}
+
+	public int getPayloadLength(int block) {
+		return payloadLengths[block];
+	}
+
+	public int getHeaderBits(int block) {
+		return headerBits[block];
+	}
+
+}
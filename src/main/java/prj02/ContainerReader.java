@@ -0,0 +1,117 @@
+package prj02;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads text written in the block format of {@link HuffmanContainer}, one block at a time.
+ */
+public class ContainerReader implements Closeable {
+
+	private final DataInputStream in;
+	private boolean ended;
+
+	/**
+	 * Reads and checks the header of a container.
+	 *
+	 * @param in where the container is read from
+	 * @throws IOException if the header cannot be read or is not a container header
+	 */
+	public ContainerReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in));
+		this.ended = false;
+		if (this.in.readInt() != HuffmanContainer.MAGIC)
+			throw new IOException("Not a Huffman container.");
+		int version = this.in.readUnsignedByte();
+		if (version != HuffmanContainer.VERSION)
+			throw new IOException("Unsupported container version " + version + ".");
+		this.in.readUnsignedByte(); // Flags
+	}
+
+	/**
+	 * Reads the next block without decoding it.
+	 *
+	 * @return the next block, or null after the last one
+	 * @throws IOException if the block cannot be read
+	 */
+	public HuffmanContainer.Block nextRawBlock() throws IOException {
+		int originalLength = readOriginalLength();
+		if (originalLength == 0)
+			return null;
+		byte[] payload = new byte[readPayloadLength()];
+		in.readFully(payload);
+		return new HuffmanContainer.Block(originalLength, payload);
+	}
+
+	/**
+	 * Reads and decodes the next block.
+	 *
+	 * @return the chars of the next block, or null after the last one
+	 * @throws IOException if the block cannot be read or is corrupt
+	 */
+	public String nextBlock() throws IOException {
+		HuffmanContainer.Block block = nextRawBlock();
+		if (block == null)
+			return null;
+		try {
+			return HuffmanContainer.decodeBlock(block);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupt block.", e);
+		}
+	}
+
+	/**
+	 * Skips the next block without reading its payload.
+	 *
+	 * @return the amount of chars in the skipped block, or 0 after the last one
+	 * @throws IOException if the block cannot be skipped
+	 */
+	public int skipBlock() throws IOException {
+		int originalLength = readOriginalLength();
+		if (originalLength == 0)
+			return 0;
+		int payloadLength = readPayloadLength();
+		if (in.skipBytes(payloadLength) != payloadLength)
+			throw new IOException("Container ends in the middle of a block.");
+		return originalLength;
+	}
+
+	/**
+	 * Decodes every remaining block.
+	 *
+	 * @return the chars of every remaining block
+	 * @throws IOException if a block cannot be read or is corrupt
+	 */
+	public String readAll() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (String block = nextBlock(); block != null; block = nextBlock())
+			sb.append(block);
+		return sb.toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private int readOriginalLength() throws IOException {
+		if (ended)
+			return 0;
+		int originalLength = in.readInt();
+		if (originalLength < 0)
+			throw new IOException("Corrupt block header.");
+		ended = originalLength == 0;
+		return originalLength;
+	}
+
+	private int readPayloadLength() throws IOException {
+		int payloadLength = in.readInt();
+		if (payloadLength < 0)
+			throw new IOException("Corrupt block header.");
+		return payloadLength;
+	}
+
+}
@@ -0,0 +1,131 @@
+package prj02;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes text in the block format of {@link HuffmanContainer}.
+ * Chars are gathered until a block is full, then the block is encoded with its own code table and written.
+ */
+public class ContainerWriter implements Closeable {
+
+	private final DataOutputStream out;
+	private final char[] block;
+	private final ContainerIndex index; // Null if the container has no index
+	private long position; // Bytes written so far
+	private int blockLength;
+	private boolean closed;
+
+	public ContainerWriter(OutputStream out) throws IOException {
+		this(out, HuffmanContainer.DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Starts a container by writing its header.
+	 *
+	 * @param out where the container is written
+	 * @param blockSize the amount of chars in every block but the last one
+	 * @throws IOException if the header cannot be written
+	 */
+	public ContainerWriter(OutputStream out, int blockSize) throws IOException {
+		this(out, blockSize, 0);
+	}
+
+	/**
+	 * Starts a container by writing its header.
+	 *
+	 * @param out where the container is written
+	 * @param blockSize the amount of chars in every block but the last one
+	 * @param indexGranularity distance in chars between seek index points, 0 for no index
+	 * @throws IOException if the header cannot be written
+	 */
+	public ContainerWriter(OutputStream out, int blockSize, int indexGranularity) throws IOException {
+		if (indexGranularity < 0)
+			throw new IllegalArgumentException("Index granularity cannot be negative.");
+		if (blockSize < HuffmanContainer.MIN_BLOCK_SIZE || blockSize > HuffmanContainer.MAX_BLOCK_SIZE)
+			throw new IllegalArgumentException("Block size must be between " + HuffmanContainer.MIN_BLOCK_SIZE
+					+ " and " + HuffmanContainer.MAX_BLOCK_SIZE + ".");
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.block = new char[blockSize];
+		this.index = indexGranularity > 0 ? new ContainerIndex(indexGranularity) : null;
+		this.blockLength = 0;
+		this.closed = false;
+		this.out.writeInt(HuffmanContainer.MAGIC);
+		this.out.writeByte(HuffmanContainer.VERSION);
+		this.out.writeByte(index != null ? HuffmanContainer.FLAG_INDEXED : 0);
+		this.position = 6;
+	}
+
+	public void write(CharSequence chars) throws IOException {
+		for (int i = 0; i < chars.length(); i++) {
+			block[blockLength++] = chars.charAt(i);
+			if (blockLength == block.length)
+				writeBlock();
+		}
+	}
+
+	public void write(char[] chars, int offset, int length) throws IOException {
+		while (length > 0) {
+			int n = Math.min(length, block.length - blockLength);
+			System.arraycopy(chars, offset, block, blockLength, n);
+			blockLength += n;
+			offset += n;
+			length -= n;
+			if (blockLength == block.length)
+				writeBlock();
+		}
+	}
+
+	/**
+	 * Writes an already encoded block as it is.
+	 * If the container has an index, the block must have been encoded with the index's granularity.
+	 *
+	 * @param encoded the block to write
+	 * @throws IOException if the block cannot be written
+	 */
+	public void writeBlock(HuffmanContainer.Block encoded) throws IOException {
+		if (blockLength > 0)
+			writeBlock();
+		if (index != null)
+			index.addBlock(position, encoded);
+		out.writeInt(encoded.getOriginalLength());
+		out.writeInt(encoded.getPayload().length);
+		out.write(encoded.getPayload());
+		position += 8 + encoded.getPayload().length;
+	}
+
+	/**
+	 * Writes the chars gathered so far as a last block, ends the container, writes the index if there is one
+	 * and closes the stream.
+	 *
+	 * @throws IOException if the container cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		if (blockLength > 0)
+			writeBlock();
+		out.writeInt(0);
+		position += 4;
+		if (index != null) {
+			index.write(out);
+			out.writeLong(position);
+			out.writeInt(HuffmanContainer.INDEX_MAGIC);
+		}
+		out.close();
+	}
+
+	private void writeBlock() throws IOException {
+		HuffmanContainer.Block encoded = index != null
+				? HuffmanContainer.encodeBlock(block, 0, blockLength, index.getGranularity())
+				: HuffmanContainer.encodeBlock(block, 0, blockLength);
+		blockLength = 0;
+		writeBlock(encoded);
+	}
+
+}
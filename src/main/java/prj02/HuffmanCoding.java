@@ -1,10 +1,11 @@
 package prj02;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.text.DecimalFormat;
 import java.util.HashSet;
 
@@ -29,50 +30,178 @@ import Tree.*;
  * @since 10/16/2021
  */
 public class HuffmanCoding {
+	/* Inputs bigger than this (in bytes) go through the memory mapped pipeline */
+	private static final long MAPPED_THRESHOLD = 64L * 1024 * 1024;
+	/* Inputs with more characters than this get the statistics of process_stats instead of the full process_results */
+	private static final int FULL_REPORT_LIMIT = 64 * 1024;
+
 	/** Runs the program
 	 * 
 	 * @param args the command line arguments.
 	 * */
 	public static void main(String[] args) {
-		HuffmanEncodedResult();
+		if (args.length > 0 && args[0].equals("--batch")) {
+			HuffmanBatchResult(args);
+			return;
+		}
+		String inputFile = args.length > 0 ? args[0] : "input1.txt"; //You can create other test input files and add them to the inputData Folder
+		int maxCodeLength; //Longest code allowed, 0 for plain Huffman codes
+		try {
+			maxCodeLength = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+		} catch (NumberFormatException e) {
+			print_usage("Longest code length must be a number: " + args[1]);
+			return;
+		}
+		if (maxCodeLength < 0 || maxCodeLength > 63) {
+			print_usage("Longest code length must be between 1 and 63, or 0 for plain Huffman codes.");
+			return;
+		}
+		/*A limit too small for the alphabet (or out of range) is a usage error, not a crash*/
+		try {
+			HuffmanEncodedResult(inputFile, maxCodeLength);
+		} catch (IllegalArgumentException e) {
+			print_usage(e.getMessage());
+		}
+	}
+
+	private static void print_usage(String error) {
+		System.out.println(error);
+		System.out.println("Usage: [input file in inputData/] [longest code length, 1 to 63, or 0 for plain Huffman codes]");
+		System.out.println("       --batch [-d] <directory or glob> [output directory]");
 	}
 
 	/* This method just runs all the main methods developed or the algorithm */
-	private static void HuffmanEncodedResult() {
-		String data = load_data("input1.txt"); //You can create other test input files and add them to the inputData Folder
+	private static void HuffmanEncodedResult(String inputFile, int maxCodeLength) {
+		/*Big files are counted and encoded straight from a memory mapping instead of being loaded into a String*/
+		File file = new File("inputData/" + inputFile);
+		if(file.length() > MAPPED_THRESHOLD) {
+			HuffmanEncodedMappedResult(file, maxCodeLength);
+			return;
+		}
+
+		/*Every stage is measured when PipelineMetrics are enabled (-Dhuffman.metrics=true) or JFR records its events*/
+		PipelineMetrics.Span span = PipelineMetrics.start(PipelineMetrics.Stage.LOAD);
+		String data = load_data(inputFile);
+		long inputBytes = file.length();
+		PipelineMetrics.end(span, inputBytes, 0, data.length());
 
 		/*If input string is not empty we can encode the text using our algorithm*/
 		if(!data.isEmpty()) {
+			span = PipelineMetrics.start(PipelineMetrics.Stage.COUNT);
 			Map<String, Integer> fD = compute_fd(data);
-			BTNode<Integer,String> huffmanRoot = huffman_tree(fD);
-			Map<String,String> encodedHuffman = huffman_code(huffmanRoot);
-			String output = encode(encodedHuffman, data);
-			process_results(fD, encodedHuffman,data,output);
+			PipelineMetrics.end(span, inputBytes, 0, data.length());
+
+			Map<String,String> encodedHuffman;
+			if(maxCodeLength > 0) {
+				span = PipelineMetrics.start(PipelineMetrics.Stage.CODE);
+				encodedHuffman = huffman_limited_code(fD, maxCodeLength);
+				PipelineMetrics.end(span, 0, 0, fD.size());
+			} else {
+				span = PipelineMetrics.start(PipelineMetrics.Stage.TREE);
+				BTNode<Integer,String> huffmanRoot = huffman_tree(fD);
+				PipelineMetrics.end(span, 0, 0, fD.size());
+				span = PipelineMetrics.start(PipelineMetrics.Stage.CODE);
+				encodedHuffman = huffman_code(huffmanRoot);
+				PipelineMetrics.end(span, 0, 0, fD.size());
+			}
+
+			span = PipelineMetrics.start(PipelineMetrics.Stage.PACK);
+			PackedBits packed = encodePacked(encodedHuffman, data);
+			PipelineMetrics.end(span, inputBytes, packed.byteLength(), data.length());
+
+			/*Printing every string of a big input costs more than encoding it, so only its statistics are printed*/
+			if(data.length() > FULL_REPORT_LIMIT) {
+				process_stats(fD, encodedHuffman, data, packed, HuffmanReport.DEFAULT_TOP_K);
+			} else {
+				span = PipelineMetrics.start(PipelineMetrics.Stage.ENCODE);
+				String output = encode(encodedHuffman, data);
+				PipelineMetrics.end(span, inputBytes, output.length(), data.length());
+				process_results(fD, encodedHuffman,data,output,packed);
+			}
 		} else {
 			System.out.println("Input Data Is Empty! Try Again with a File that has data inside!");
 		}
 
+		if(PipelineMetrics.isEnabled())
+			System.out.println("\n" + PipelineMetrics.snapshot());
+	}
+
+	/* Batch mode: --batch [-d] <directory or glob> [output directory] compresses (or with -d decompresses) every file */
+	private static void HuffmanBatchResult(String[] args) {
+		boolean decompress = args.length > 1 && args[1].equals("-d");
+		int first = decompress ? 2 : 1;
+		if (args.length <= first) {
+			System.out.println("Usage: --batch [-d] <directory or glob> [output directory]");
+			return;
+		}
+		File outputDir = new File(args.length > first + 1 ? args[first + 1] : (decompress ? "decompressed" : "compressed"));
+		try (BatchCompressor batch = new BatchCompressor()) {
+			File[] inputs = BatchCompressor.resolve(args[first]);
+			BatchCompressor.Summary summary = decompress ? batch.decompress(inputs, outputDir) : batch.compress(inputs, outputDir);
+			for (String failure : summary.getFailures())
+				System.out.println("Failed: " + failure);
+			System.out.println((decompress ? "Decompressed " : "Compressed ") + summary + (batch.isVirtual() ? " on virtual threads." : "."));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/* Same as HuffmanEncodedResult, but both passes (count, then encode) read the file's bytes through memory mappings */
+	private static void HuffmanEncodedMappedResult(File file, int maxCodeLength) {
+		try (MappedInput input = MappedInput.open(file.getPath());
+				ParallelFrequencyCounter counter = new ParallelFrequencyCounter()) {
+			long inputBytes = input.size();
+			PipelineMetrics.Span span = PipelineMetrics.start(PipelineMetrics.Stage.COUNT);
+			Map<String, Integer> fD = compute_fd(input, counter);
+			PipelineMetrics.end(span, inputBytes, 0, inputBytes);
+
+			Map<String,String> encodedHuffman;
+			if(maxCodeLength > 0) {
+				span = PipelineMetrics.start(PipelineMetrics.Stage.CODE);
+				encodedHuffman = huffman_limited_code(fD, maxCodeLength);
+				PipelineMetrics.end(span, 0, 0, fD.size());
+			} else {
+				span = PipelineMetrics.start(PipelineMetrics.Stage.TREE);
+				BTNode<Integer,String> huffmanRoot = huffman_tree(fD);
+				PipelineMetrics.end(span, 0, 0, fD.size());
+				span = PipelineMetrics.start(PipelineMetrics.Stage.CODE);
+				encodedHuffman = huffman_code(huffmanRoot);
+				PipelineMetrics.end(span, 0, 0, fD.size());
+			}
+
+			span = PipelineMetrics.start(PipelineMetrics.Stage.ENCODE);
+			long outputBits = encode(encodedHuffman, input, OutputStream.nullOutputStream());
+			PipelineMetrics.end(span, inputBytes, (outputBits + 7) / 8, inputBytes);
+
+			print_table(fD, encodedHuffman);
+			System.out.println();
+			print_sizes(inputBytes, (outputBits + 7) / 8);
+			if(PipelineMetrics.isEnabled())
+				System.out.println("\n" + PipelineMetrics.snapshot());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
 	/**
 	 * Receives a file named in parameter inputFile (including its path),
 	 * and returns a single string with the contents.
 	 *
+	 * The whole file is read, line breaks included, through the fixed size buffer of a ChunkedReader.
+	 *
 	 * @param inputFile name of the file to be processed in the path inputData/
 	 * @return String with the information to be processed
 	 */
 	public static String load_data(String inputFile) {
-		BufferedReader in = null;
-		String line = "";
+		ChunkedReader in = null;
+		StringBuilder data = new StringBuilder();
 
 		try {
 			/*We create a new reader that accepts UTF-8 encoding and extract the input string from the file, and we return it*/
-			in = new BufferedReader(new InputStreamReader(new FileInputStream("inputData/" + inputFile), "UTF-8"));
+			in = ChunkedReader.open("inputData/" + inputFile);
 
 			/*If input file is empty just return an empty string, if not just extract the data*/
-			String extracted = in.readLine();
-			if(extracted != null)
-				line = extracted;
+			in.forEachChunk((chunk, length) -> data.append(chunk, 0, length));
 
 		} catch (FileNotFoundException e) {
 
@@ -91,7 +220,7 @@ public class HuffmanCoding {
 				}
 
 		}
-		return line;
+		return data.toString();
 	}
 
 	/**
@@ -101,102 +230,101 @@ public class HuffmanCoding {
 	 * @return Map with symbols as keys and frequency as values of each key.
 	 */
 	public static Map<String, Integer> compute_fd(String inputString) {
-		/* HashFunction used to initialized the HashTableSC*/
-		HashFunction<String> hash = new SimpleHashFunction<String>();
-		Map<String, Integer> symFreq = new HashTableSC<String, Integer>(inputString.length(),hash); //HashTableSC initialized with inputString's length to avoid worst case scenario bugs. Worst case: Every symbol is different.
-		for(int i = 0; i < inputString.length(); i++)
-		{
-			String symbol = inputString.substring(i, i+1); //Symbol in the string
-			if(!symFreq.containsKey(symbol)) 
-			{
-				symFreq.put(symbol, 1);
-			}
-			else //Symbol is already in map
-			{
-				Integer symVal = symFreq.remove(symbol); //Save the symbol's old value
-				symFreq.put(symbol, symVal+1); //Add the symbol with its new value
-			}
-		}
-		return symFreq; // Map with symbol frequency distribution.
+		/* Count every character in primitive counters, the map is only built once all the counting is done*/
+		SymbolHistogram histogram = new SymbolHistogram();
+		histogram.addChars(inputString);
+		return histogram.toFrequencyMap(); // Map with symbol frequency distribution.
+	}
+
+	/**
+	 * Same as compute_fd(String), but the string is counted in chunks on the threads of the given counter.
+	 *
+	 * @param inputString the string whose characters(symbol) are going to be counted and stored in a map.
+	 * @param counter the parallel counter that splits and counts the string.
+	 * @return Map with symbols as keys and frequency as values of each key.
+	 */
+	public static Map<String, Integer> compute_fd(String inputString, ParallelFrequencyCounter counter) {
+		return counter.count(inputString).toFrequencyMap();
+	}
+
+	/**
+	 * Computes the frequency distribution of the symbols of an n-gram alphabet: the input is split greedily
+	 * into the alphabet's digrams and trigrams, with single characters where none matches.
+	 *
+	 * @param inputString the string to split and count.
+	 * @param alphabet the n-grams to split the string into, see NGramAlphabet.train().
+	 * @return Map with symbols as keys and frequency as values of each key.
+	 */
+	public static Map<String, Integer> compute_fd(String inputString, NGramAlphabet alphabet) {
+		return alphabet.compute_fd(inputString);
+	}
+
+	/**
+	 * Computes the frequency distribution of the word level symbols of the input: the tokens of the alphabet,
+	 * and WordAlphabet.ESCAPE for every token that is spelled out char by char instead.
+	 *
+	 * @param inputString the string to split and count.
+	 * @param alphabet the words with a code of their own, see WordAlphabet.train().
+	 * @return Map with symbols as keys and frequency as values of each key.
+	 */
+	public static Map<String, Integer> compute_fd(String inputString, WordAlphabet alphabet) {
+		return alphabet.compute_fd(inputString);
+	}
+
+	/**
+	 * Reads the input chunk by chunk and returns a map with the symbol frequency distribution,
+	 * without ever holding the whole input in memory.
+	 *
+	 * @param input the reader with the characters(symbols) that are going to be counted.
+	 * @return Map with symbols as keys and frequency as values of each key.
+	 * @throws IOException if the input cannot be read
+	 */
+	public static Map<String, Integer> compute_fd(ChunkedReader input) throws IOException {
+		SymbolHistogram histogram = new SymbolHistogram();
+		input.forEachChunk((chunk, length) -> histogram.addChars(chunk, 0, length));
+		return histogram.toFrequencyMap(); // Map with symbol frequency distribution.
+	}
+
+	/**
+	 * Counts the bytes of a memory mapped file and returns a map with the symbol frequency distribution.
+	 *
+	 * Every byte is a symbol, named by the ISO-8859-1 character with the same value, so ASCII files get the same
+	 * symbols as compute_fd(String). Frequencies that do not fit an Integer are scaled down, keeping every symbol
+	 * (see SymbolHistogram.toFrequencyMap()).
+	 *
+	 * @param input the mapped file whose bytes(symbols) are going to be counted.
+	 * @return Map with symbols as keys and frequency as values of each key.
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static Map<String, Integer> compute_fd(MappedInput input) throws IOException {
+		SymbolHistogram histogram = new SymbolHistogram();
+		input.forEachWindow(histogram::addBytes);
+		return histogram.toFrequencyMap();
+	}
+
+	/**
+	 * Same as compute_fd(MappedInput), but every window is counted in chunks on the threads of the given counter.
+	 *
+	 * @param input the mapped file whose bytes(symbols) are going to be counted.
+	 * @param counter the parallel counter that splits and counts the windows.
+	 * @return Map with symbols as keys and frequency as values of each key.
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static Map<String, Integer> compute_fd(MappedInput input, ParallelFrequencyCounter counter) throws IOException {
+		return counter.count(input).toFrequencyMap();
 	}
 
 	/**
 	 * Receives a map with the frequency distribution and returns a root node of the created Huffman tree.
 	 *
+	 * Leaves hold their symbol, internal nodes only hold the sum of their children's frequencies.
+	 *
 	 * @param fD the map with the frequency-symbol distribution.
 	 * @return the root of the created Huffman tree.
 	 */
 	public static BTNode<Integer, String> huffman_tree(Map<String, Integer> fD) {
-
-		BTNode<Integer,String> rootNode = null;
-		/* Sorted linked list to fill*/
-		AbstractSortedList<BTNode<Integer, String>> sortedList = new SortedLinkedList<BTNode<Integer, String>>();
-		/* Fill the sorted linked list with the fD values*/
-		for(String s : fD.getKeys())
-		{
-			/* Create BTNode and add it to the sorted linked list*/
-			BTNode<Integer, String> btNode = new BTNode<Integer, String>(fD.get(s), s);
-			sortedList.add(btNode);
-		}
-		/* Case in which the sorted linked list consist of only 1 element*/
-		if(sortedList.size() == 1)
-		{
-			rootNode = sortedList.get(0);
-		}
-		
-		/* Continuously gets the first two nodes of the sortedList and creates the Huffman tree*/
-		for(int i = 0; sortedList.size() != 1;)
-		{
-			/* Compare the first two nodes, the smallest will go to the left, the biggest will go to the right*/
-			int smaOrBig = sortedList.get(i).compareTo(sortedList.get(i+1));
-			/* First node is the smallest of the two*/
-			if(smaOrBig < 0)
-			{
-				/* Get the keys and values of the first two nodes*/
-				Integer fNodeKey = sortedList.get(i).getKey();
-				Integer sNodeKey = sortedList.get(i+1).getKey();
-				String fNodeValue = sortedList.get(i).getValue();
-				String sNodeValue = sortedList.get(i+1).getValue();
-				/* Combine both nodes into a bigger node*/
-				rootNode = new BTNode<Integer, String>(fNodeKey+sNodeKey, fNodeValue+sNodeValue);
-				/* Create parent-child relationship*/
-				BTNode<Integer, String> first = sortedList.get(i);
-				BTNode<Integer, String> second = sortedList.get(i+1);
-				first.setParent(rootNode);
-				second.setParent(rootNode);
-				rootNode.setLeftChild(first);
-				rootNode.setRightChild(second);
-				/* Erased both elements from the list and add combine node to the list*/
-				sortedList.removeIndex(i);
-				sortedList.removeIndex(i);
-				sortedList.add(rootNode);
-			}
-			/* First node is the biggest of the two*/
-			else
-			{
-				/* Get the keys and values of the first two nodes*/
-				Integer fNodeKey = sortedList.get(i).getKey();
-				Integer sNodeKey = sortedList.get(i+1).getKey();
-				String fNodeValue = sortedList.get(i).getValue();
-				String sNodeValue = sortedList.get(i+1).getValue();
-				/* Combine both nodes into a bigger node*/
-				rootNode = new BTNode<Integer, String>(fNodeKey+sNodeKey, sNodeValue+fNodeValue);
-				/* Create parent-child relationship*/
-				BTNode<Integer, String> first = sortedList.get(i);
-				BTNode<Integer, String> second = sortedList.get(i+1);
-				first.setParent(rootNode);
-				second.setParent(rootNode);
-				rootNode.setLeftChild(second);
-				rootNode.setRightChild(first);
-				/* Erased both elements from the list and add combine node to the list*/
-				sortedList.removeIndex(i);
-				sortedList.removeIndex(i);
-				sortedList.add(rootNode);
-			}
-			
-		}
-			
-		return rootNode;
+		/* The two smallest nodes are taken from a binary heap instead of a sorted linked list, see HuffmanTreeBuilder*/
+		return HuffmanTreeBuilder.build(fD);
 	}
 
 	/**
@@ -206,22 +334,48 @@ public class HuffmanCoding {
 	 * @return a map with the symbols as keys and the Huffman code as the value of each key
 	 */
 	public static Map<String, String> huffman_code(BTNode<Integer,String> huffmanRoot) {
-		/* Simple hash function to initialize the hash table*/
-		HashFunction<String> hash = new SimpleHashFunction<String>();
-		/* Map that will hold the symbols and their corresponding Huffman codes*/
-		Map<String, String> symCode = new HashTableSC<String, String>(huffmanRoot.getValue().length(), hash);
-		/* Traverse each character in the root's string and add to the map*/
-		for(char c : huffmanRoot.getValue().toCharArray())
-		{
-			/* Symbol whose Huffman code will be created*/
-			String symbol = String.valueOf(c);
-			/* Store the Huffman code string that the auxiliary function will return*/
-			String huffCode = huffman_codeAux(huffmanRoot, symbol);
-			/* Add the symbol and its corresponding Huffman code to the map*/
-			symCode.put(symbol, huffCode);
-			
-		}
-		return symCode;
+		/* Walk the tree once, every leaf gets the path that leads to it as its code (see CodeTable.fromTree())*/
+		return CodeTable.fromTree(huffmanRoot).toCodeMap();
+	}
+
+	/**
+	 * Receives the root of a Huffman tree and returns a mapping of every symbol to its canonical Huffman code.
+	 *
+	 * Every symbol keeps the code length it has in the tree, but the codes are assigned in order of (length, symbol),
+	 * so a decoder only needs the code lengths (see CanonicalCode.writeHeader()) instead of the whole tree.
+	 *
+	 * @param huffmanRoot the root of the Huffman tree
+	 * @return a map with the symbols as keys and the canonical Huffman code as the value of each key
+	 */
+	public static Map<String, String> huffman_canonical_code(BTNode<Integer,String> huffmanRoot) {
+		return CanonicalCode.fromTree(huffmanRoot).toCodeMap();
+	}
+
+	/**
+	 * Returns canonical Huffman codes for the frequency distribution, reusing the tables of an earlier distribution
+	 * with nearly the same statistics from the cache instead of building the tree again.
+	 *
+	 * @param fD the map with the frequency-symbol distribution.
+	 * @param cache the cache of code tables.
+	 * @return a map with the symbols as keys and their code as the value of each key.
+	 */
+	public static Map<String, String> huffman_code(Map<String, Integer> fD, CodeTableCache cache) {
+		return cache.get(fD).getCodeMap();
+	}
+
+	/**
+	 * Receives a map with the frequency distribution and returns a mapping of every symbol to a canonical code
+	 * no longer than maxCodeLength bits.
+	 *
+	 * Among the codes that respect the limit, these take the fewest bits for the distribution (see LengthLimitedCode),
+	 * so a decoder table of 2^maxCodeLength entries resolves any code in one lookup.
+	 *
+	 * @param fD the map with the frequency-symbol distribution.
+	 * @param maxCodeLength the longest code allowed.
+	 * @return a map with the symbols as keys and the length limited code as the value of each key
+	 */
+	public static Map<String, String> huffman_limited_code(Map<String, Integer> fD, int maxCodeLength) {
+		return LengthLimitedCode.fromFrequencies(fD, maxCodeLength).toCodeMap();
 	}
 
 	/**
@@ -232,16 +386,282 @@ public class HuffmanCoding {
 	 * @return the encoded string.
 	 */
 	public static String encode(Map<String, String> encodingMap, String inputString) {
-		/* Encoded string*/
-		String eStr = "";
+		/* Encoded string, built in place to avoid copying it on every symbol*/
+		StringBuilder eStr = new StringBuilder();
 		/* Traverse the inputString*/
-		for(char symbol : inputString.toCharArray())
+		for(int i = 0; i < inputString.length(); i++)
 		{
-			/* Concat the symbol's Huffman code to the encoded string*/
-			eStr += encodingMap.get(String.valueOf(symbol));
+			/* Append the symbol's Huffman code to the encoded string*/
+			eStr.append(encodingMap.get(String.valueOf(inputString.charAt(i))));
 		}
 		/* Return the encoded string*/
-		return eStr; 
+		return eStr.toString();
+	}
+
+	/**
+	 * Receives the Huffman code map and the input string and returns the encoded bits packed eight to a byte.
+	 *
+	 * The bits are the same ones returned by encode(), but each one takes a bit instead of a 16-bit char.
+	 *
+	 * @param encodingMap the map containing the symbols and their corresponding Huffman code.
+	 * @param inputString the string to encode.
+	 * @return the packed encoded bits.
+	 */
+	public static PackedBits encodePacked(Map<String, String> encodingMap, String inputString) {
+		CodeTable table = CodeTable.fromCodeMap(encodingMap);
+		BitWriter writer = new BitWriter(Math.max(1, inputString.length() / 2));
+		table.encode(inputString, writer);
+		return writer.toPackedBits();
+	}
+
+	/**
+	 * Same as encodePacked(encodingMap, inputString), but the string is split into the symbols of an n-gram alphabet.
+	 * The bits decode with decodePacked() like any other codes, yielding a whole n-gram per code.
+	 *
+	 * @param encodingMap the map of the alphabet's symbols to their Huffman code, from compute_fd(inputString, alphabet).
+	 * @param inputString the string to encode.
+	 * @param alphabet the n-grams the string is split into.
+	 * @return the packed encoded bits.
+	 */
+	public static PackedBits encodePacked(Map<String, String> encodingMap, String inputString, NGramAlphabet alphabet) {
+		BitWriter writer = new BitWriter(Math.max(1, inputString.length() / 4));
+		alphabet.encode(inputString, CodeTable.fromCodeMap(encodingMap), writer);
+		return writer.toPackedBits();
+	}
+
+	/**
+	 * Same as encodePacked(encodingMap, inputString), but the string is encoded in chunks on the threads of the given encoder,
+	 * every chunk writing straight into its place in the output.
+	 *
+	 * @param encodingMap the map containing the symbols and their corresponding Huffman code.
+	 * @param inputString the string to encode.
+	 * @param encoder the parallel encoder that splits and encodes the string.
+	 * @return the packed encoded bits.
+	 */
+	public static PackedBits encodePacked(Map<String, String> encodingMap, String inputString, ParallelEncoder encoder) {
+		return encoder.encode(CodeTable.fromCodeMap(encodingMap), inputString);
+	}
+
+	/**
+	 * Reads the input chunk by chunk and writes its packed Huffman encoding to the output stream,
+	 * so neither the input nor the output has to fit in memory.
+	 *
+	 * The last byte is padded with zeros, the returned bit length tells where the data really ends.
+	 *
+	 * @param encodingMap the map containing the symbols and their corresponding Huffman code.
+	 * @param input the reader with the characters to encode.
+	 * @param out where the packed encoded bits are written.
+	 * @return the amount of encoded bits, not counting the padding.
+	 * @throws IOException if the input cannot be read or the output cannot be written
+	 */
+	public static long encode(Map<String, String> encodingMap, ChunkedReader input, OutputStream out) throws IOException {
+		CodeTable table = CodeTable.fromCodeMap(encodingMap);
+		BitWriter writer = new BitWriter(out);
+		input.forEachChunk((chunk, length) -> table.encode(chunk, 0, length, writer));
+		return writer.finish();
+	}
+
+	/**
+	 * Encodes the bytes of a memory mapped file, symbols named as in compute_fd(MappedInput),
+	 * and writes the packed bits to the output stream.
+	 *
+	 * @param encodingMap the map containing the symbols and their corresponding Huffman code.
+	 * @param input the mapped file to encode.
+	 * @param out where the packed encoded bits are written.
+	 * @return the amount of encoded bits, not counting the padding.
+	 * @throws IOException if the file cannot be mapped or the output cannot be written
+	 */
+	public static long encode(Map<String, String> encodingMap, MappedInput input, OutputStream out) throws IOException {
+		/* Codes indexed by byte value, so the loop does not have to turn bytes into chars*/
+		CodeTable table = CodeTable.fromCodeMap(encodingMap);
+		long[] codes = new long[256];
+		int[] lengths = new int[256];
+		for(int b = 0; b < 256; b++)
+		{
+			int id = table.idOf((char) b);
+			lengths[b] = id < 0 ? -1 : table.getLength(id);
+			codes[b] = id < 0 ? 0 : table.getCode(id);
+		}
+
+		BitWriter writer = new BitWriter(out);
+		input.forEachWindow(window -> {
+			for(int i = 0, end = window.limit(); i < end; i++)
+			{
+				int b = window.get(i) & 0xFF;
+				if(lengths[b] < 0)
+					throw new IllegalArgumentException("Byte " + b + " has no Huffman code.");
+				writer.write(codes[b], lengths[b]);
+			}
+		});
+		return writer.finish();
+	}
+
+	/**
+	 * Compresses the characters of a reader into the block container format of HuffmanContainer.
+	 * Every block gets its own canonical Huffman code, built from that block alone.
+	 *
+	 * @param input the reader with the characters to compress.
+	 * @param out where the container is written, closed at the end.
+	 * @param blockSize the amount of characters in every block but the last one.
+	 * @throws IOException if the input cannot be read or the output cannot be written
+	 */
+	public static void compress(ChunkedReader input, OutputStream out, int blockSize) throws IOException {
+		compress(input, out, blockSize, 0);
+	}
+
+	/**
+	 * Compresses the characters of a reader into the block container format of HuffmanContainer,
+	 * with a seek index at the end so IndexedContainer can decode ranges of the text directly.
+	 *
+	 * @param input the reader with the characters to compress.
+	 * @param out where the container is written, closed at the end.
+	 * @param blockSize the amount of characters in every block but the last one.
+	 * @param indexGranularity distance in characters between seek index points, 0 for no index.
+	 * @throws IOException if the input cannot be read or the output cannot be written
+	 */
+	public static void compress(ChunkedReader input, OutputStream out, int blockSize, int indexGranularity) throws IOException {
+		try (ContainerWriter writer = new ContainerWriter(out, blockSize, indexGranularity)) {
+			input.forEachChunk((chunk, length) -> writer.write(chunk, 0, length));
+		}
+	}
+
+	/**
+	 * Decompresses a container written by compress(), one block at a time.
+	 *
+	 * @param in where the container is read from, closed at the end.
+	 * @param out where the decompressed characters are written.
+	 * @throws IOException if the container cannot be read or is corrupt
+	 */
+	public static void decompress(InputStream in, Writer out) throws IOException {
+		try (ContainerReader reader = new ContainerReader(in)) {
+			for (String block = reader.nextBlock(); block != null; block = reader.nextBlock())
+				out.write(block);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Decompresses a container written by compress(), decoding several blocks at the same time.
+	 *
+	 * @param in where the container is read from, closed at the end.
+	 * @param out where the decompressed characters are written.
+	 * @param decoder the decoder whose threads decode the blocks.
+	 * @throws IOException if the container cannot be read or is corrupt
+	 */
+	public static void decompress(InputStream in, Writer out, ParallelBlockDecoder decoder) throws IOException {
+		try (ContainerReader reader = new ContainerReader(in)) {
+			decoder.decode(reader, out);
+		}
+	}
+
+	/**
+	 * Compresses the characters of a reader in one pass with an adaptive Huffman code,
+	 * so no frequency distribution has to be computed first and no table is written.
+	 *
+	 * @param input the reader with the characters to compress.
+	 * @param out where the compressed bits are written, closed at the end.
+	 * @throws IOException if the input cannot be read or the output cannot be written
+	 */
+	public static void compressAdaptive(ChunkedReader input, OutputStream out) throws IOException {
+		try (AdaptiveHuffmanWriter writer = new AdaptiveHuffmanWriter(out)) {
+			input.forEachChunk((chunk, length) -> writer.write(chunk, 0, length));
+		}
+	}
+
+	/**
+	 * Decompresses the bits written by compressAdaptive().
+	 *
+	 * @param in where the compressed bits are read from, closed at the end.
+	 * @param out where the decompressed characters are written.
+	 * @throws IOException if the input cannot be read or ends before the end marker
+	 */
+	public static void decompressAdaptive(InputStream in, Writer out) throws IOException {
+		try (AdaptiveHuffmanReader reader = new AdaptiveHuffmanReader(in)) {
+			/* Chars are passed on as soon as they are decoded, not once a whole buffer is full */
+			char[] buffer = new char[8192];
+			for (int length = reader.read(buffer, 0, buffer.length); length >= 0; length = reader.read(buffer, 0, buffer.length))
+				out.write(buffer, 0, length);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Encodes the input in code point mode: every Unicode code point is one symbol, so characters outside
+	 * the Basic Multilingual Plane keep their two surrogates together, unlike the single char symbols of compute_fd().
+	 *
+	 * The result starts with the amount of code points (64 bits) and the canonical code header,
+	 * so decodeCodePoints() needs nothing else.
+	 *
+	 * @param inputString the text to encode, not empty.
+	 * @return the packed header and codes.
+	 */
+	public static PackedBits encodeCodePoints(String inputString) {
+		CodePointCode code = CodePointCode.fromText(inputString);
+		BitWriter writer = new BitWriter(Math.max(16, inputString.length() / 2));
+		writer.write(inputString.codePointCount(0, inputString.length()), 64);
+		code.writeHeader(writer);
+		code.encode(inputString, writer);
+		return writer.toPackedBits();
+	}
+
+	/**
+	 * Decodes the bits produced by encodeCodePoints().
+	 *
+	 * @param packed the packed header and codes.
+	 * @return the decoded text.
+	 */
+	public static String decodeCodePoints(PackedBits packed) {
+		BitReader in = new BitReader(packed);
+		long count = in.read(64);
+		CodePointCode code = CodePointCode.readHeader(in);
+		StringBuilder sb = new StringBuilder();
+		code.decode(in, count, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Encodes the input in word mode: the most frequent words of the alphabet get Huffman codes of their own,
+	 * the rest are spelled out after an escape code. Both code tables travel with the bits.
+	 *
+	 * @param inputString the text to encode.
+	 * @param alphabet the words with a code of their own, see WordAlphabet.train().
+	 * @return the packed header and codes.
+	 */
+	public static PackedBits encodeWords(String inputString, WordAlphabet alphabet) {
+		return alphabet.encode(inputString);
+	}
+
+	/**
+	 * Decodes the bits produced by encodeWords().
+	 *
+	 * @param packed the packed header and codes.
+	 * @return the decoded text.
+	 */
+	public static String decodeWords(PackedBits packed) {
+		return WordAlphabet.decode(packed);
+	}
+
+	/**
+	 * Encodes a short message with the registered static table that makes it smallest,
+	 * or with a table of its own when none of them beats it.
+	 *
+	 * @param message the message to encode.
+	 * @param tables the static tables, see StaticCodeTable.train().
+	 * @return the table id byte and the codes.
+	 */
+	public static byte[] encodeMessage(String message, StaticTableRegistry tables) {
+		return tables.encode(message);
+	}
+
+	/**
+	 * Decodes the bytes produced by encodeMessage().
+	 *
+	 * @param encoded the table id byte and the codes.
+	 * @param tables the same static tables the message was encoded with.
+	 * @return the decoded message.
+	 */
+	public static String decodeMessage(byte[] encoded, StaticTableRegistry tables) {
+		return tables.decode(encoded);
 	}
 
 	/**
@@ -257,19 +677,31 @@ public class HuffmanCoding {
 	 * @param output processed encoded string
 	 */
 	public static void process_results(Map<String, Integer> fD, Map<String, String> encodedHuffman, String inputData, String output) {
+		process_results(fD, encodedHuffman, inputData, output, PackedBits.fromBitString(output));
+	}
+
+	/**
+	 * Same as process_results(fD, encodedHuffman, inputData, output), but the encoded size is taken
+	 * from the already packed output instead of packing the encoded string again.
+	 *
+	 * @param fD Frequency Distribution of all the characters in input string
+	 * @param encodedHuffman Prefix Code Map
+	 * @param inputData text string from the input file
+	 * @param output processed encoded string
+	 * @param packed the encoded bits packed eight to a byte
+	 */
+	public static void process_results(Map<String, Integer> fD, Map<String, String> encodedHuffman, String inputData, String output, PackedBits packed) {
 		/*To get the bytes of the input string, we just get the bytes of the original string with string.getBytes().length*/
 		int inputBytes = inputData.getBytes().length;
 
 		/**
-		 * For the bytes of the encoded one, it's not so easy.
-		 *
-		 * Here we have to get the bytes the same way we got the bytes for the original one but we divide it by 8,
-		 * because 1 byte = 8 bits and our huffman code is in bits (0,1), not bytes.
+		 * For the bytes of the encoded one we use the packed output,
+		 * where every bit of the Huffman code really takes one bit and the last byte is padded.
 		 *
 		 * This is because we want to calculate how many bytes we saved by counting how many bits we generated with the encoding
 		 */
 		DecimalFormat d = new DecimalFormat("##.##");
-		double outputBytes = Math.ceil((float) output.getBytes().length / 8);
+		double outputBytes = packed.byteLength();
 
 		/**
 		 * to calculate how much space we saved we just take the percentage.
@@ -289,6 +721,54 @@ public class HuffmanCoding {
 		 *
 		 * This means the encoding worked and we saved space!
 		 */
+		print_table(fD, encodedHuffman);
+
+		System.out.println("\nOriginal String: \n" + inputData);
+		System.out.println("Encoded String: \n" + output);
+		PipelineMetrics.Span span = PipelineMetrics.start(PipelineMetrics.Stage.DECODE);
+		String decoded = decodePacked(packed, encodedHuffman);
+		PipelineMetrics.end(span, packed.byteLength(), inputBytes, decoded.length());
+		System.out.println("Decoded String: \n" + decoded + "\n");
+		System.out.println("The original string requires " + inputBytes + " bytes.");
+		System.out.println("The encoded string requires " + (int) outputBytes + " bytes.");
+		System.out.println("Difference in space requiered is " + savings + "%.");
+
+		/* How long the codes are, and what they cost if they are not plain Huffman codes (e.g. length limited)*/
+		int longest = 0;
+		for (String code : encodedHuffman.getValues())
+			longest = Math.max(longest, code.length());
+		System.out.println("The longest code has " + longest + " bits, " + d.format((double) packed.bitLength() / inputData.length()) + " bits per symbol on average.");
+		long huffmanBits = huffman_bits(fD);
+		if (packed.bitLength() > huffmanBits)
+			System.out.println("These codes take " + d.format(100.0 * (packed.bitLength() - huffmanBits) / huffmanBits) + "% more bits than unrestricted Huffman codes.");
+	}
+
+	/**
+	 * Lightweight version of process_results() for big inputs: prints the sizes, ratio, entropy and average code length
+	 * computed from the frequencies and code lengths, only the topK most frequent symbols, and whether the bits
+	 * decode back to the input, checked with a checksum instead of printing the strings.
+	 *
+	 * @param fD Frequency Distribution of all the characters in input string
+	 * @param encodedHuffman Prefix Code Map
+	 * @param inputData text string from the input file
+	 * @param packed the encoded bits packed eight to a byte
+	 * @param topK how many of the most frequent symbols are printed
+	 * @return the statistics that were printed
+	 */
+	public static HuffmanReport process_stats(Map<String, Integer> fD, Map<String, String> encodedHuffman, String inputData, PackedBits packed, int topK) {
+		HuffmanReport report = new HuffmanReport(fD, encodedHuffman, topK);
+		report.print(System.out);
+
+		PipelineMetrics.Span span = PipelineMetrics.start(PipelineMetrics.Stage.DECODE);
+		boolean verified = HuffmanReport.verify(inputData, packed, encodedHuffman, report.getCount());
+		PipelineMetrics.end(span, packed.byteLength(), 0, report.getCount());
+		System.out.println(verified ? "Round trip verified, the decoded string has the checksum of the original."
+				: "Round trip FAILED, the decoded string does not have the checksum of the original.");
+		return report;
+	}
+
+	/* Prints the symbol, frequency and code of every symbol in decreasing order by frequency */
+	private static void print_table(Map<String, Integer> fD, Map<String, String> encodedHuffman) {
 		System.out.println("Symbol\t" + "Frequency   " + "Code");
 		System.out.println("------\t" + "---------   " + "----");
 
@@ -312,12 +792,14 @@ public class HuffmanCoding {
 			BTNode<Integer,String> node = sortedList.get(i);
 			System.out.println(node.getValue() + "\t" + node.getKey() + "\t    " + encodedHuffman.get(node.getValue()));
 		}
+	}
 
-		System.out.println("\nOriginal String: \n" + inputData);
-		System.out.println("Encoded String: \n" + output);
-		System.out.println("Decoded String: \n" + decodeHuff(output, encodedHuffman) + "\n");
-		System.out.println("The original string requires " + inputBytes + " bytes.");
-		System.out.println("The encoded string requires " + (int) outputBytes + " bytes.");
+	/* Prints the sizes and savings of the mapped pipeline, where the input is not available as a string */
+	private static void print_sizes(long inputBytes, long outputBytes) {
+		DecimalFormat d = new DecimalFormat("##.##");
+		String savings = d.format(100 - ((double) outputBytes / inputBytes) * 100);
+		System.out.println("The original file requires " + inputBytes + " bytes.");
+		System.out.println("The encoded file requires " + outputBytes + " bytes.");
 		System.out.println("Difference in space requiered is " + savings + "%.");
 	}
 
@@ -326,6 +808,20 @@ public class HuffmanCoding {
 	 ** ADD ANY AUXILIARY METHOD YOU WISH TO IMPLEMENT TO FACILITATE YOUR SOLUTION HERE **
 	 *************************************************************************************/
 
+	/**
+	 * Auxiliary Method that returns how many bits the Huffman codes of a frequency distribution take, without encoding anything.
+	 *
+	 * @param fD the map with the frequency-symbol distribution.
+	 * @return the sum of every symbol's frequency times the length of its Huffman code.
+	 */
+	public static long huffman_bits(Map<String, Integer> fD) {
+		CodeTable table = CodeTable.fromTree(huffman_tree(fD));
+		long bits = 0;
+		for (int id = 0; id < table.size(); id++)
+			bits += (long) fD.get(table.getSymbol(id)) * table.getLength(id);
+		return bits;
+	}
+
 	/**
 	 * Auxiliary Method that decodes the generated string by the Huffman Coding Algorithm
 	 *
@@ -336,54 +832,54 @@ public class HuffmanCoding {
 	 * @return The decoded String, this should be the original input string parsed from the input file
 	 */
 	public static String decodeHuff(String output, Map<String, String> lookupTable) {
-		String result = "";
-		int start = 0;
-		List<String>  prefixCodes = lookupTable.getValues();
-		List<String> symbols = lookupTable.getKeys();
-
-		/*looping through output until a prefix code is found on map and
-		 * adding the symbol that the code that represents it to result */
-		for(int i = 0; i <= output.length();i++){
-
-			String searched = output.substring(start, i);
+		return decodePacked(PackedBits.fromBitString(output), lookupTable);
+	}
 
-			int index = prefixCodes.firstIndex(searched);
+	/**
+	 * Auxiliary Method that decodes the packed bits generated by encodePacked()
+	 *
+	 * The codes are resolved through the lookup tables of a TableDecoder, one table hit per symbol,
+	 * instead of searching the list of codes after every bit.
+	 *
+	 * @param packed Encoded bits
+	 * @param lookupTable the map with symbol-Huffman code elements.
+	 * @return The decoded String, this should be the original input string parsed from the input file
+	 */
+	public static String decodePacked(PackedBits packed, Map<String, String> lookupTable) {
+		CodeTable table = CodeTable.fromCodeMap(lookupTable);
+		/* A lone symbol gets an empty code, so the bits cannot tell how many times it appears */
+		if(table.size() == 1 && table.getLength(0) == 0)
+			return table.getSymbol(0);
+		return new TableDecoder(table).decode(packed);
+	}
 
-			if(index >= 0) { //Found it
-				result= result + symbols.get(index);
-				start = i;
-			}
+	/**
+	 * Same as decodeHuff(), but the bits are decoded by several threads at once.
+	 *
+	 * @param output Encoded String
+	 * @param lookupTable the map with symbol-Huffman code elements.
+	 * @return The decoded String, this should be the original input string parsed from the input file
+	 */
+	public static String decodeHuffParallel(String output, Map<String, String> lookupTable) {
+		try (SpeculativeDecoder decoder = new SpeculativeDecoder()) {
+			return decodePacked(PackedBits.fromBitString(output), lookupTable, decoder);
 		}
-		return result;
 	}
-	
+
 	/**
-	 * Auxiliary Method that returns the Huffman code of a symbol as a string.
-	 * 
-	 * @param btNode root of the Huffman tree.
-	 * @param letter the letter whose Huffman code will be created.
-	 * @return a string containing the Huffman code of the given letter.
-	 * */
-	public static String huffman_codeAux(BTNode<Integer, String> btNode, String letter)
-	{
-		/* if both children are null, return*/
-		if(btNode.getLeftChild() == null && btNode.getRightChild() == null)
-		{
-			return "";
-		}
-		/* if left child symbol contains letter*/
-		else if(btNode.getLeftChild().getValue().contains(letter))
-		{
-			/* Concat "0" to the string and enter left child*/
-			return "0" + huffman_codeAux(btNode.getLeftChild(), letter);
-		}
-		/* left child symbol does not contain letter*/
-		else
-		{
-			/* Concat "1" to the string and enter the right child*/
-			return "1" + huffman_codeAux(btNode.getRightChild(), letter);
-			
-		}
+	 * Same as decodePacked(), but the bits are cut into segments that the threads of a SpeculativeDecoder
+	 * start decoding at the same time, relying on Huffman codes synchronizing by themselves.
+	 *
+	 * @param packed Encoded bits
+	 * @param lookupTable the map with symbol-Huffman code elements.
+	 * @param decoder the decoder whose threads decode the segments.
+	 * @return The decoded String, this should be the original input string parsed from the input file
+	 */
+	public static String decodePacked(PackedBits packed, Map<String, String> lookupTable, SpeculativeDecoder decoder) {
+		CodeTable table = CodeTable.fromCodeMap(lookupTable);
+		if(table.size() == 1 && table.getLength(0) == 0)
+			return table.getSymbol(0);
+		return decoder.decode(new TableDecoder(table), packed);
 	}
 
 
@@ -0,0 +1,183 @@
+package prj02;
+
+import java.util.Arrays;
+
+/**
+ * The on-disk format of Huffman compressed text, made of independently decodable blocks.
+ *
+ * <pre>
+ * file    = magic (4 bytes "HUFC") version (1 byte) flags (1 byte) block* end [index]
+ * block   = original length (4 bytes, chars, &gt; 0) payload length (4 bytes) payload
+ * payload = canonical code header (see CanonicalCode.writeHeader()) codes of the block's chars, padded to a byte
+ * end     = 0 (4 bytes)
+ * index   = footer (see ContainerIndex) footer offset (8 bytes) index magic (4 bytes "HUFI"), only if FLAG_INDEXED is set
+ * </pre>
+ * Numbers are big endian. Every block has its own code table, so blocks can be encoded, decoded or skipped
+ * on their own, and every block's codes follow the statistics of its own part of the input.
+ * The optional index at the end lets {@link IndexedContainer} decode a range without reading what comes before it.
+ */
+public class HuffmanContainer {
+
+	public static final int MAGIC = 0x48554643; // "HUFC"
+	public static final int VERSION = 1;
+	public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+	public static final int MIN_BLOCK_SIZE = 1;
+	public static final int MAX_BLOCK_SIZE = 16 * 1024 * 1024;
+
+	public static final int FLAG_INDEXED = 1;
+	public static final int INDEX_MAGIC = 0x48554649; // "HUFI"
+	public static final int DEFAULT_INDEX_GRANULARITY = 4096;
+
+	/**
+	 * A block as it is stored: how many chars it decodes to and its payload.
+	 * Blocks that were just encoded also know where their codes start and their index points.
+	 */
+	public static class Block {
+		private final int originalLength;
+		private final byte[] payload;
+		private final int headerBits;
+		private final long[] indexPoints;
+
+		public Block(int originalLength, byte[] payload) {
+			this(originalLength, payload, -1, null);
+		}
+
+		/**
+		 * @param originalLength amount of chars the block decodes to
+		 * @param payload the code table header and encoded chars
+		 * @param headerBits bit offset in the payload where the codes start
+		 * @param indexPoints bit offset in the payload of the code of every granularity-th char after the first
+		 */
+		public Block(int originalLength, byte[] payload, int headerBits, long[] indexPoints) {
+			this.originalLength = originalLength;
+			this.payload = payload;
+			this.headerBits = headerBits;
+			this.indexPoints = indexPoints;
+		}
+
+		public int getOriginalLength() {
+			return originalLength;
+		}
+
+		public byte[] getPayload() {
+			return payload;
+		}
+
+		/** @return bit offset in the payload where the codes start, -1 if unknown */
+		public int getHeaderBits() {
+			return headerBits;
+		}
+
+		/** @return bit offsets of the index points, null if unknown */
+		public long[] getIndexPoints() {
+			return indexPoints;
+		}
+	}
+
+	private HuffmanContainer() {
+	}
+
+	/**
+	 * Builds the canonical Huffman code of the chars and encodes them with it.
+	 *
+	 * @param chars the array with the chars of the block
+	 * @param offset position of the first char of the block
+	 * @param length amount of chars in the block, at least 1
+	 * @return the block with its code table header and encoded chars
+	 */
+	public static Block encodeBlock(char[] chars, int offset, int length) {
+		return encodeBlock(chars, offset, length, length);
+	}
+
+	/**
+	 * Builds the canonical Huffman code of the chars and encodes them with it,
+	 * keeping the bit offset of every granularity-th char for the index.
+	 *
+	 * @param chars the array with the chars of the block
+	 * @param offset position of the first char of the block
+	 * @param length amount of chars in the block, at least 1
+	 * @param granularity distance in chars between index points
+	 * @return the block with its code table header, encoded chars and index points
+	 */
+	public static Block encodeBlock(char[] chars, int offset, int length, int granularity) {
+		if (granularity < 1)
+			throw new IllegalArgumentException("Index granularity must be at least 1.");
+		SymbolHistogram histogram = new SymbolHistogram();
+		histogram.addChars(chars, offset, length);
+		CanonicalCode code = CanonicalCode.fromTree(HuffmanCoding.huffman_tree(histogram.toFrequencyMap()));
+
+		BitWriter writer = new BitWriter(Math.max(16, length / 2));
+		code.writeHeader(writer);
+		int headerBits = (int) writer.bitLength();
+
+		CodeTable table = code.toCodeTable();
+		long[] points = new long[(length - 1) / granularity];
+		for (int start = 0; start < length; start += granularity) {
+			if (start > 0)
+				points[start / granularity - 1] = writer.bitLength();
+			table.encode(chars, offset + start, Math.min(granularity, length - start), writer);
+		}
+		return new Block(length, writer.toPackedBits().getBytes(), headerBits, points);
+	}
+
+	/**
+	 * Decodes a block on its own.
+	 *
+	 * @param block the block to decode
+	 * @param out where the decoded chars are appended
+	 * @throws IllegalArgumentException if the block is corrupt
+	 */
+	public static void decodeBlock(Block block, StringBuilder out) {
+		BitReader in = new BitReader(block.getPayload(), (long) block.getPayload().length * 8);
+		CodeTable table = CanonicalCode.readHeader(in).toCodeTable();
+		/* A lone symbol has an empty code, the original length says how many times it appears */
+		if (table.size() == 1 && table.getLength(0) == 0) {
+			for (int i = 0; i < block.getOriginalLength(); i++)
+				out.append(table.getSymbol(0));
+			return;
+		}
+		new TableDecoder(table).decode(in, block.getOriginalLength(), out);
+	}
+
+	/**
+	 * Decodes a block on its own straight into a char array.
+	 *
+	 * @param block the block to decode
+	 * @param out the array that receives the decoded chars
+	 * @param offset where the first decoded char goes
+	 * @throws IllegalArgumentException if the block is corrupt
+	 */
+	public static void decodeBlock(Block block, char[] out, int offset) {
+		BitReader in = new BitReader(block.getPayload(), (long) block.getPayload().length * 8);
+		CodeTable table = CanonicalCode.readHeader(in).toCodeTable();
+		char[] symbols = new char[table.size()];
+		for (int id = 0; id < symbols.length; id++) {
+			if (table.getSymbol(id).length() != 1)
+				throw new IllegalArgumentException("Block symbols must be single chars.");
+			symbols[id] = table.getSymbol(id).charAt(0);
+		}
+		int end = offset + block.getOriginalLength();
+		if (table.size() == 1 && table.getLength(0) == 0) {
+			Arrays.fill(out, offset, end, symbols[0]);
+			return;
+		}
+		TableDecoder decoder = new TableDecoder(table);
+		for (int i = offset; i < end; i++)
+			out[i] = symbols[decoder.decodeSymbol(in)];
+		if (in.remaining() < 0)
+			throw new IllegalArgumentException("Encoded data ends in the middle of a code.");
+	}
+
+	/**
+	 * Decodes a block on its own.
+	 *
+	 * @param block the block to decode
+	 * @return the chars of the block
+	 */
+	public static String decodeBlock(Block block) {
+		StringBuilder sb = new StringBuilder(block.getOriginalLength());
+		decodeBlock(block, sb);
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,271 @@
+package prj02;
+
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.util.zip.CRC32;
+
+import HashTable.Map;
+import PriorityQueue.BinaryHeap;
+import PriorityQueue.PriorityQueue;
+
+/**
+ * The statistics of an encoding, computed from the frequency map and the code lengths alone: sizes, ratio,
+ * entropy and average code length, without the sorted table of every symbol or the original, encoded and decoded strings
+ * that process_results() prints.
+ *
+ * Only the topK most frequent symbols are kept, picked with a min-heap of at most topK entries. The round trip is
+ * checked by decoding the bits into a CRC-32 and comparing it with the CRC-32 of the input, without building the decoded string.
+ */
+public class HuffmanReport {
+
+	public static final int DEFAULT_TOP_K = 10;
+
+	/** A symbol with its frequency and code */
+	public static class Entry {
+		private final String symbol;
+		private final int frequency;
+		private final String code;
+
+		private Entry(String symbol, int frequency, String code) {
+			this.symbol = symbol;
+			this.frequency = frequency;
+			this.code = code;
+		}
+
+		public String getSymbol() {
+			return symbol;
+		}
+
+		public int getFrequency() {
+			return frequency;
+		}
+
+		public String getCode() {
+			return code;
+		}
+	}
+
+	private final int symbols;
+	private final long count;
+	private final long inputChars;
+	private final long inputBytes;
+	private final long encodedBits;
+	private final long huffmanBits;
+	private final double entropy;
+	private final int longest;
+	private final Entry[] top; // Most frequent first
+
+	/**
+	 * Computes the statistics of the codes of a frequency distribution.
+	 *
+	 * @param fD the map with the frequency-symbol distribution
+	 * @param encodedHuffman the code of every symbol of fD
+	 * @param topK the amount of most frequent symbols to keep, 0 for none
+	 */
+	public HuffmanReport(Map<String, Integer> fD, Map<String, String> encodedHuffman, int topK) {
+		if (topK < 0)
+			throw new IllegalArgumentException("Top K cannot be negative.");
+
+		/* Sizes and bits straight from the frequencies, the UTF-8 size of every symbol times its frequency */
+		long count = 0, chars = 0, bytes = 0, bits = 0;
+		int longest = 0;
+		for (String symbol : fD.getKeys()) {
+			int frequency = fD.get(symbol);
+			int length = encodedHuffman.get(symbol).length();
+			count += frequency;
+			chars += (long) frequency * symbol.length();
+			bytes += (long) frequency * utf8Length(symbol);
+			bits += (long) frequency * length;
+			longest = Math.max(longest, length);
+		}
+		double entropy = 0;
+		for (String symbol : fD.getKeys()) {
+			double p = (double) fD.get(symbol) / count;
+			entropy -= p * Math.log(p) / Math.log(2);
+		}
+
+		/* Keep the topK biggest frequencies in a min-heap, ties go to the smaller symbol */
+		PriorityQueue<Entry> heap = new BinaryHeap<Entry>(Math.max(1, topK + 1), (a, b) -> a.frequency != b.frequency
+				? Integer.compare(a.frequency, b.frequency) : b.symbol.compareTo(a.symbol));
+		for (String symbol : fD.getKeys()) {
+			if (topK == 0)
+				break;
+			heap.add(new Entry(symbol, fD.get(symbol), encodedHuffman.get(symbol)));
+			if (heap.size() > topK)
+				heap.removeMin();
+		}
+		Entry[] top = new Entry[heap.size()];
+		for (int i = top.length - 1; i >= 0; i--)
+			top[i] = heap.removeMin();
+
+		this.symbols = fD.size();
+		this.count = count;
+		this.inputChars = chars;
+		this.inputBytes = bytes;
+		this.encodedBits = bits;
+		this.huffmanBits = HuffmanCoding.huffman_bits(fD);
+		this.entropy = entropy;
+		this.longest = longest;
+		this.top = top;
+	}
+
+	/* UTF-8 bytes of a symbol, counting a surrogate pair as the 4 bytes of its code point */
+	private static int utf8Length(String symbol) {
+		int bytes = 0;
+		for (int i = 0; i < symbol.length(); i++) {
+			char c = symbol.charAt(i);
+			bytes += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Returns the CRC-32 of the chars of a text, two bytes per char.
+	 *
+	 * @param text the text
+	 * @return the checksum
+	 */
+	public static long checksum(CharSequence text) {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[8192];
+		for (int i = 0; i < text.length();) {
+			int length = 0;
+			for (; length < buffer.length && i < text.length(); i++) {
+				buffer[length++] = (byte) (text.charAt(i) >>> 8);
+				buffer[length++] = (byte) text.charAt(i);
+			}
+			crc.update(buffer, 0, length);
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Decodes the bits straight into a CRC-32, the same one checksum() gives for the decoded text.
+	 *
+	 * @param packed the encoded bits
+	 * @param encodedHuffman the code of every symbol
+	 * @param count the amount of symbols the bits hold
+	 * @return the checksum of the decoded text
+	 * @throws IllegalArgumentException if the bits are not exactly count whole codes
+	 */
+	public static long decodedChecksum(PackedBits packed, Map<String, String> encodedHuffman, long count) {
+		CodeTable table = CodeTable.fromCodeMap(encodedHuffman);
+		/* A lone symbol gets an empty code, it appears count times */
+		TableDecoder decoder = table.size() == 1 && table.getLength(0) == 0 ? null : new TableDecoder(table);
+		BitReader in = packed.reader();
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[8192];
+		int length = 0;
+		for (long n = 0; n < count; n++) {
+			String symbol = table.getSymbol(decoder == null ? 0 : decoder.decodeSymbol(in));
+			for (int i = 0; i < symbol.length(); i++) {
+				if (length == buffer.length) {
+					crc.update(buffer, 0, length);
+					length = 0;
+				}
+				buffer[length++] = (byte) (symbol.charAt(i) >>> 8);
+				buffer[length++] = (byte) symbol.charAt(i);
+			}
+		}
+		crc.update(buffer, 0, length);
+		/* Reads past the end give zeros, so bits left over or missing would otherwise go unnoticed */
+		if (in.remaining() != 0)
+			throw new IllegalArgumentException("Encoded data does not end after the last symbol.");
+		return crc.getValue();
+	}
+
+	/**
+	 * Checks that the bits decode back to the input, comparing checksums.
+	 *
+	 * @param inputData the text that was encoded
+	 * @param packed the encoded bits
+	 * @param encodedHuffman the code of every symbol
+	 * @param count the amount of symbols the bits hold
+	 * @return whether the bits are exactly count whole codes and the decoded text has the checksum of the input
+	 */
+	public static boolean verify(CharSequence inputData, PackedBits packed, Map<String, String> encodedHuffman, long count) {
+		try {
+			return checksum(inputData) == decodedChecksum(packed, encodedHuffman, count);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	public int getSymbols() {
+		return symbols;
+	}
+
+	/** @return the amount of symbols encoded, the sum of every frequency */
+	public long getCount() {
+		return count;
+	}
+
+	/** @return the amount of chars of the input, every symbol's frequency times its length */
+	public long getInputChars() {
+		return inputChars;
+	}
+
+	/** @return the size of the input in UTF-8 */
+	public long getInputBytes() {
+		return inputBytes;
+	}
+
+	public long getEncodedBits() {
+		return encodedBits;
+	}
+
+	/** @return the encoded size, with the last byte padded */
+	public long getEncodedBytes() {
+		return (encodedBits + 7) / 8;
+	}
+
+	/** @return the encoded bytes over the input bytes */
+	public double ratio() {
+		return inputBytes == 0 ? 0 : (double) getEncodedBytes() / inputBytes;
+	}
+
+	/** @return the Shannon entropy of the frequencies, the fewest bits per symbol any prefix code can average */
+	public double getEntropy() {
+		return entropy;
+	}
+
+	/** @return the bits per symbol the codes average */
+	public double averageLength() {
+		return count == 0 ? 0 : (double) encodedBits / count;
+	}
+
+	public int getLongest() {
+		return longest;
+	}
+
+	/** @return the topK most frequent symbols, most frequent first */
+	public Entry[] getTop() {
+		return top.clone();
+	}
+
+	/**
+	 * Prints the statistics and the most frequent symbols.
+	 *
+	 * @param out where the report is printed
+	 */
+	public void print(PrintStream out) {
+		DecimalFormat d = new DecimalFormat("##.##");
+		if (top.length > 0) {
+			out.println("Symbol\t" + "Frequency   " + "Code");
+			out.println("------\t" + "---------   " + "----");
+			for (Entry entry : top)
+				out.println(entry.symbol + "\t" + entry.frequency + "\t    " + entry.code);
+			if (top.length < symbols)
+				out.println("(" + (symbols - top.length) + " less frequent symbols not shown)");
+			out.println();
+		}
+		out.println("The original string requires " + inputBytes + " bytes.");
+		out.println("The encoded string requires " + getEncodedBytes() + " bytes.");
+		out.println("Difference in space requiered is " + d.format(100 - ratio() * 100) + "%.");
+		out.println(symbols + " symbols, entropy " + d.format(entropy) + " bits per symbol, codes average " + d.format(averageLength())
+				+ " bits per symbol, the longest has " + longest + " bits.");
+		if (encodedBits > huffmanBits)
+			out.println("These codes take " + d.format(100.0 * (encodedBits - huffmanBits) / huffmanBits) + "% more bits than unrestricted Huffman codes.");
+	}
+
+}
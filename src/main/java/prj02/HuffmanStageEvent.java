@@ -0,0 +1,38 @@
+package prj02;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event of one stage of the Huffman pipeline, committed by PipelineMetrics.
+ * Like every custom event it is enabled by default, so any running recording (e.g. -XX:StartFlightRecording) gets it
+ * unless its settings turn prj02.HuffmanStage off. With no recording running it costs nothing but the check of isEnabled().
+ */
+@Name("prj02.HuffmanStage")
+@Label("Huffman Stage")
+@Category("Huffman")
+@Description("One stage of the Huffman pipeline: counting, tree building, code generation, encoding or decoding")
+class HuffmanStageEvent extends jdk.jfr.Event {
+
+	@Label("Stage")
+	String stage;
+
+	@Label("Bytes In")
+	@DataAmount
+	long bytesIn;
+
+	@Label("Bytes Out")
+	@DataAmount
+	long bytesOut;
+
+	@Label("Symbols")
+	long symbols;
+
+	@Label("Allocated")
+	@DataAmount
+	long allocatedBytes;
+
+}
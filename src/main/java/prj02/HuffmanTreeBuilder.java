@@ -0,0 +1,148 @@
+package prj02;
+
+import HashTable.Map;
+import List.ArrayList;
+import List.List;
+import PriorityQueue.BinaryHeap;
+import PriorityQueue.PriorityQueue;
+import Tree.BTNode;
+
+/**
+ * Builds Huffman trees with a binary heap, so every merge takes O(log n) instead of the O(n) of a sorted list.
+ *
+ * Ties are broken exactly like BTNode.compareTo() breaks them when every node holds the concatenation
+ * of its leaves' symbols, so the codes do not change. The concatenations themselves are never built:
+ * internal nodes hold an empty value, and two subtrees are compared by walking their leaves,
+ * which almost always stops at the first leaf since symbols are different.
+ *
+ * The only order that cannot be reproduced is between two subtrees whose concatenations are exactly equal,
+ * which needs multi-character symbols like "ab"+"c" and "a"+"bc". The sorted list placed those by insertion order.
+ */
+public class HuffmanTreeBuilder {
+
+	/* Characters of the concatenation kept in the heap for breaking ties */
+	private static final int PREFIX_LENGTH = 32;
+
+	/* A subtree waiting in the heap, with the start of its leaves' concatenation at hand for breaking ties */
+	private static class Subtree {
+		private final BTNode<Integer, String> node;
+		private final String prefix; // At most PREFIX_LENGTH characters
+		private final boolean complete; // Whether prefix is the whole concatenation
+
+		Subtree(BTNode<Integer, String> node, String prefix, boolean complete) {
+			this.node = node;
+			this.prefix = prefix;
+			this.complete = complete;
+		}
+
+		static Subtree leaf(BTNode<Integer, String> node) {
+			String symbol = node.getValue();
+			if (symbol.length() > PREFIX_LENGTH)
+				return new Subtree(node, symbol.substring(0, PREFIX_LENGTH), false);
+			return new Subtree(node, symbol, true);
+		}
+
+		static Subtree merge(BTNode<Integer, String> parent, Subtree left, Subtree right) {
+			if (!left.complete)
+				return new Subtree(parent, left.prefix, false);
+			String prefix = left.prefix + right.prefix;
+			if (prefix.length() > PREFIX_LENGTH)
+				return new Subtree(parent, prefix.substring(0, PREFIX_LENGTH), false);
+			return new Subtree(parent, prefix, right.complete);
+		}
+	}
+
+	/* Walks the characters of a subtree's leaves from left to right, as if they were concatenated */
+	private static class LeafChars {
+		private final List<BTNode<Integer, String>> pending = new ArrayList<BTNode<Integer, String>>();
+		private String current;
+		private int position;
+
+		LeafChars(BTNode<Integer, String> root) {
+			descend(root);
+		}
+
+		/* Returns the next character, or -1 after the last leaf */
+		int next() {
+			while (position == current.length()) {
+				if (pending.isEmpty())
+					return -1;
+				BTNode<Integer, String> node = pending.last();
+				pending.remove(pending.size() - 1);
+				descend(node);
+			}
+			return current.charAt(position++);
+		}
+
+		private void descend(BTNode<Integer, String> node) {
+			while (node.getLeftChild() != null) {
+				pending.add(node.getRightChild());
+				node = node.getLeftChild();
+			}
+			current = node.getValue();
+			position = 0;
+		}
+	}
+
+	/**
+	 * Builds the Huffman tree for a frequency distribution.
+	 *
+	 * @param fD the map with the frequency-symbol distribution.
+	 * @return the root of the Huffman tree, a lone leaf if there is a single symbol.
+	 */
+	public static BTNode<Integer, String> build(Map<String, Integer> fD) {
+		if (fD.isEmpty())
+			throw new IllegalArgumentException("Frequency distribution cannot be empty.");
+
+		PriorityQueue<Subtree> heap = new BinaryHeap<Subtree>(fD.size(), HuffmanTreeBuilder::compare);
+		for (String symbol : fD.getKeys())
+			heap.add(Subtree.leaf(new BTNode<Integer, String>(fD.get(symbol), symbol)));
+
+		/* Merge the two smallest subtrees until only one is left, the smaller of the two goes to the left */
+		while (heap.size() > 1) {
+			Subtree first = heap.removeMin();
+			Subtree second = heap.removeMin();
+			Subtree left = compare(first, second) < 0 ? first : second;
+			Subtree right = left == first ? second : first;
+
+			BTNode<Integer, String> parent = new BTNode<Integer, String>(first.node.getKey() + second.node.getKey(), "");
+			left.node.setParent(parent);
+			right.node.setParent(parent);
+			parent.setLeftChild(left.node);
+			parent.setRightChild(right.node);
+			heap.add(Subtree.merge(parent, left, right));
+		}
+		return heap.removeMin().node;
+	}
+
+	/* Same order as BTNode.compareTo() on nodes holding the concatenation of their leaves */
+	private static int compare(Subtree a, Subtree b) {
+		int freqComp = a.node.getKey().compareTo(b.node.getKey());
+		if (freqComp != 0)
+			return freqComp;
+
+		/* A difference within the prefixes decides the comparison */
+		int common = Math.min(a.prefix.length(), b.prefix.length());
+		for (int i = 0; i < common; i++) {
+			if (a.prefix.charAt(i) != b.prefix.charAt(i))
+				return a.prefix.charAt(i) - b.prefix.charAt(i);
+		}
+		/* So does one concatenation ending where the other one goes on */
+		if (a.complete && b.complete)
+			return a.prefix.length() - b.prefix.length();
+		if (a.complete && a.prefix.length() == common)
+			return -1;
+		if (b.complete && b.prefix.length() == common)
+			return 1;
+
+		LeafChars aChars = new LeafChars(a.node);
+		LeafChars bChars = new LeafChars(b.node);
+		while (true) {
+			int aChar = aChars.next();
+			int bChar = bChars.next();
+			if (aChar != bChar || aChar < 0)
+				return aChar - bChar;
+		}
+	}
+
+}
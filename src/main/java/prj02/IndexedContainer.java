@@ -0,0 +1,162 @@
+package prj02;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access to a {@link HuffmanContainer} file written with a seek index.
+ *
+ * A range is decoded by jumping to the index point at or before its start and reading only the bytes
+ * that can hold its codes, so the cost depends on the index granularity and the range, not on the file size.
+ */
+public class IndexedContainer implements Closeable {
+
+	private final FileChannel channel;
+	private final ContainerIndex index;
+
+	/* Code table of the last block that was decoded, ranges close to each other usually fall in the same block */
+	private int cachedBlock;
+	private CodeTable cachedTable;
+	private TableDecoder cachedDecoder;
+	private int cachedMaxLength;
+
+	/**
+	 * Reads the index of a container.
+	 *
+	 * @param channel the container file, left open until this is closed
+	 * @throws IOException if the file is not a container or has no index
+	 */
+	public IndexedContainer(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.cachedBlock = -1;
+
+		DataInputStream header = new DataInputStream(new ByteArrayInputStream(read(0, 6)));
+		if (header.readInt() != HuffmanContainer.MAGIC)
+			throw new IOException("Not a Huffman container.");
+		if (header.readUnsignedByte() != HuffmanContainer.VERSION)
+			throw new IOException("Unsupported container version.");
+		if ((header.readUnsignedByte() & HuffmanContainer.FLAG_INDEXED) == 0)
+			throw new IOException("Container has no seek index.");
+
+		DataInputStream trailer = new DataInputStream(new ByteArrayInputStream(read(channel.size() - 12, 12)));
+		long footerOffset = trailer.readLong();
+		if (trailer.readInt() != HuffmanContainer.INDEX_MAGIC || footerOffset < 6 || footerOffset > channel.size() - 12)
+			throw new IOException("Corrupt container trailer.");
+		byte[] footer = read(footerOffset, (int) (channel.size() - 12 - footerOffset));
+		this.index = ContainerIndex.read(new DataInputStream(new ByteArrayInputStream(footer)));
+	}
+
+	public static IndexedContainer open(String path) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+		try {
+			return new IndexedContainer(channel);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** @return the amount of chars in the uncompressed text */
+	public long length() {
+		return index.length();
+	}
+
+	public ContainerIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Decodes a range of the uncompressed text.
+	 *
+	 * @param offset offset of the first char in the uncompressed text
+	 * @param length amount of chars to decode
+	 * @return the chars of the range
+	 * @throws IOException if the file cannot be read or is corrupt
+	 */
+	public String decodeRange(long offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > length())
+			throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " is outside of the text.");
+		StringBuilder sb = new StringBuilder(length);
+		while (length > 0) {
+			int block = index.blockOf(offset);
+			int inBlock = (int) (offset - index.getCharOffset(block));
+			int count = Math.min(length, index.getOriginalLength(block) - inBlock);
+			decode(block, inBlock, count, sb);
+			offset += count;
+			length -= count;
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/* Decodes count chars of a block, starting at char inBlock */
+	private void decode(int block, int inBlock, int count, StringBuilder out) throws IOException {
+		loadTable(block);
+		/* A lone symbol has an empty code, nothing to read */
+		if (cachedDecoder == null) {
+			for (int i = 0; i < count; i++)
+				out.append(cachedTable.getSymbol(0));
+			return;
+		}
+
+		/* Only the bytes that can hold the codes from the index point to the end of the range are read */
+		int skip = inBlock % index.getGranularity();
+		long startBit = index.pointBefore(block, inBlock);
+		long endBit = Math.min((long) index.getPayloadLength(block) * 8, startBit + (long) (skip + count) * cachedMaxLength);
+		long firstByte = startBit / 8;
+		byte[] bytes = read(payloadOffset(block) + firstByte, (int) ((endBit + 7) / 8 - firstByte));
+
+		BitReader in = new BitReader(bytes, endBit - firstByte * 8);
+		in.skip((int) (startBit % 8));
+		try {
+			for (int i = 0; i < skip; i++)
+				cachedDecoder.decodeSymbol(in);
+			cachedDecoder.decode(in, count, out);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupt block " + block + ".", e);
+		}
+	}
+
+	private void loadTable(int block) throws IOException {
+		if (block == cachedBlock)
+			return;
+		byte[] header = read(payloadOffset(block), (index.getHeaderBits(block) + 7) / 8);
+		try {
+			cachedTable = CanonicalCode.readHeader(new BitReader(header, index.getHeaderBits(block))).toCodeTable();
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupt block " + block + ".", e);
+		}
+		cachedMaxLength = 0;
+		for (int id = 0; id < cachedTable.size(); id++)
+			cachedMaxLength = Math.max(cachedMaxLength, cachedTable.getLength(id));
+		cachedDecoder = cachedMaxLength == 0 ? null : new TableDecoder(cachedTable);
+		cachedBlock = block;
+	}
+
+	private long payloadOffset(int block) {
+		return index.getFileOffset(block) + 8;
+	}
+
+	private byte[] read(long position, int length) throws IOException {
+		if (position < 0 || length < 0)
+			throw new IOException("Corrupt container.");
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new EOFException("Container ends before position " + (position + length) + ".");
+		}
+		return buffer.array();
+	}
+
+}
@@ -0,0 +1,117 @@
+package prj02;
+
+import java.util.Arrays;
+
+import HashTable.Map;
+import List.List;
+
+/**
+ * Optimal prefix codes whose lengths do not go over a limit, found with the package-merge algorithm.
+ *
+ * Skewed frequencies make Huffman trees very deep, and every extra bit of the longest code doubles the size
+ * of a lookup table that decodes it in one step. Package-merge finds, among the codes no longer than the limit,
+ * the one that takes the fewest bits for the given frequencies. With a limit no smaller than the Huffman tree's depth
+ * it takes exactly as many bits as Huffman coding.
+ *
+ * Package-merge builds one list per allowed length: the first has a coin per symbol, every next one merges
+ * the symbols' coins with packages of two consecutive items of the previous list. The 2n - 2 cheapest items
+ * of the last list are taken, and every symbol's code length is the amount of taken items that include its coin.
+ */
+public class LengthLimitedCode {
+
+	private LengthLimitedCode() {
+	}
+
+	/**
+	 * Computes the code lengths.
+	 *
+	 * @param weights the frequency of every symbol, all bigger than 0
+	 * @param maxLength the longest code allowed
+	 * @return the code length of every symbol, 0 if there is a lone symbol
+	 * @throws IllegalArgumentException if the symbols do not fit in codes of maxLength bits
+	 */
+	public static int[] lengths(long[] weights, int maxLength) {
+		int n = weights.length;
+		if (maxLength < 1 || maxLength > 63)
+			throw new IllegalArgumentException("Maximum code length must be between 1 and 63.");
+		if (n > (1L << maxLength))
+			throw new IllegalArgumentException(n + " symbols do not fit in codes of " + maxLength + " bits.");
+		int[] lengths = new int[n];
+		if (n == 1)
+			return lengths;
+
+		/* The coins of every symbol, cheapest first */
+		Integer[] boxed = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			if (weights[i] <= 0)
+				throw new IllegalArgumentException("Weights must be bigger than 0.");
+			boxed[i] = i;
+		}
+		Arrays.sort(boxed, (a, b) -> Long.compare(weights[a], weights[b]));
+		int[] order = new int[n];
+		long[] sorted = new long[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = boxed[i];
+			sorted[i] = weights[order[i]];
+		}
+
+		/* One list per length: the weight of every item and whether it is a package or a symbol's coin */
+		long[][] itemWeights = new long[maxLength][];
+		boolean[][] isPackage = new boolean[maxLength][];
+		itemWeights[0] = sorted;
+		isPackage[0] = new boolean[n];
+		for (int level = 1; level < maxLength; level++) {
+			long[] previous = itemWeights[level - 1];
+			int packages = previous.length / 2;
+			itemWeights[level] = new long[n + packages];
+			isPackage[level] = new boolean[n + packages];
+			/* Merge the coins with the packages of two consecutive items, coins first on ties */
+			int coin = 0, pack = 0;
+			for (int i = 0; i < n + packages; i++) {
+				long packWeight = pack < packages ? previous[2 * pack] + previous[2 * pack + 1] : Long.MAX_VALUE;
+				if (coin < n && sorted[coin] <= packWeight) {
+					itemWeights[level][i] = sorted[coin++];
+				} else {
+					itemWeights[level][i] = packWeight;
+					isPackage[level][i] = true;
+					pack++;
+				}
+			}
+		}
+
+		/* Take the 2n - 2 cheapest items of the last list and unpack them level by level.
+		 * Coins in a list keep the order of the symbols, so the taken coins are always the first ones */
+		int taken = 2 * n - 2;
+		for (int level = maxLength - 1; level >= 0; level--) {
+			int coins = 0, packages = 0;
+			for (int i = 0; i < taken; i++) {
+				if (isPackage[level][i])
+					packages++;
+				else
+					lengths[order[coins++]]++;
+			}
+			taken = 2 * packages;
+		}
+		return lengths;
+	}
+
+	/**
+	 * Builds canonical codes no longer than maxLength bits that take the fewest bits for the frequency distribution.
+	 *
+	 * @param fD the map with the frequency-symbol distribution
+	 * @param maxLength the longest code allowed
+	 * @return the canonical code with the limited lengths
+	 */
+	public static CanonicalCode fromFrequencies(Map<String, Integer> fD, int maxLength) {
+		List<String> keys = fD.getKeys();
+		String[] symbols = new String[keys.size()];
+		long[] weights = new long[keys.size()];
+		int i = 0;
+		for (String symbol : keys) {
+			symbols[i] = symbol;
+			weights[i++] = fD.get(symbol);
+		}
+		return new CanonicalCode(symbols, lengths(weights, maxLength));
+	}
+
+}
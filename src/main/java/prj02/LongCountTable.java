@@ -0,0 +1,97 @@
+package prj02;
+
+/**
+ * Maps long keys to long values with open addressing in two primitive arrays, for counting packed keys
+ * (like n-grams) without a boxed key and a node per entry. The key 0 is not allowed, it marks free slots.
+ */
+public class LongCountTable {
+
+	private long[] keys;
+	private long[] values;
+	private int size;
+
+	public LongCountTable() {
+		keys = new long[64];
+		values = new long[64];
+		size = 0;
+	}
+
+	/**
+	 * Adds to the value of a key, which starts at 0.
+	 *
+	 * @param key the key, not 0
+	 * @param delta what is added to its value
+	 */
+	public void add(long key, long delta) {
+		int slot = slot(key);
+		if (keys[slot] == 0) {
+			if (2 * (size + 1) > keys.length) {
+				reHash();
+				slot = slot(key);
+			}
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] += delta;
+	}
+
+	public void put(long key, long value) {
+		add(key, value - get(key, 0));
+	}
+
+	/**
+	 * Returns the value of a key.
+	 *
+	 * @param key the key, not 0
+	 * @param absent what to return if the key was never added
+	 * @return the value of the key, or absent
+	 */
+	public long get(long key, long absent) {
+		int slot = slot(key);
+		return keys[slot] == 0 ? absent : values[slot];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/** @return the slots of the table, to walk every key with getKey() and getValue() */
+	public int capacity() {
+		return keys.length;
+	}
+
+	/** @return the key in a slot, 0 if the slot is free */
+	public long getKey(int slot) {
+		return keys[slot];
+	}
+
+	public long getValue(int slot) {
+		return values[slot];
+	}
+
+	/* The slot holding the key, or the free slot where it would go */
+	private int slot(long key) {
+		if (key == 0)
+			throw new IllegalArgumentException("Key cannot be 0.");
+		int mask = keys.length - 1;
+		/* The top bits of the product are the best mixed, take as many as the table needs */
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(keys.length)));
+		while (keys[slot] != 0 && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void reHash() {
+		long[] oldKeys = keys, oldValues = values;
+		keys = new long[2 * oldKeys.length];
+		values = new long[2 * oldKeys.length];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = slot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+}
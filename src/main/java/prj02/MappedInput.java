@@ -0,0 +1,80 @@
+package prj02;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Gives access to a file through memory mapped windows, so its bytes are read straight from the page cache
+ * without copying them through a Reader or building a String.
+ *
+ * A single mapping cannot go past 2 GB, so bigger files are visited as a sequence of windows.
+ * Every pass maps the windows again, which is cheap since the pages stay in the page cache.
+ */
+public class MappedInput implements Closeable {
+
+	public static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+	/** Receives every window of the file in order */
+	public interface WindowConsumer {
+		void accept(MappedByteBuffer window) throws IOException;
+	}
+
+	private final FileChannel channel;
+	private final long windowSize;
+
+	public MappedInput(FileChannel channel) {
+		this(channel, DEFAULT_WINDOW_SIZE);
+	}
+
+	public MappedInput(FileChannel channel, long windowSize) {
+		if (channel == null)
+			throw new IllegalArgumentException("Channel cannot be null.");
+		if (windowSize < 1 || windowSize > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Window size must be between 1 and " + Integer.MAX_VALUE + ".");
+		this.channel = channel;
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Opens a file for mapping.
+	 *
+	 * @param path the path of the file, including its directory
+	 * @return the mapped input for the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static MappedInput open(String path) throws IOException {
+		return new MappedInput(FileChannel.open(Paths.get(path), StandardOpenOption.READ));
+	}
+
+	/**
+	 * Returns the size of the file in bytes.
+	 *
+	 * @return the size of the file
+	 * @throws IOException if the size cannot be read
+	 */
+	public long size() throws IOException {
+		return channel.size();
+	}
+
+	/**
+	 * Maps the file one window at a time, from the start, and passes every window to the consumer.
+	 *
+	 * @param consumer receives every window, positioned at 0 with the window's size as its limit
+	 * @throws IOException if the file cannot be mapped or the consumer fails
+	 */
+	public void forEachWindow(WindowConsumer consumer) throws IOException {
+		long size = channel.size();
+		for (long start = 0; start < size; start += windowSize)
+			consumer.accept(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start)));
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -0,0 +1,175 @@
+package prj02;
+
+import HashTable.HashFunction;
+import HashTable.HashTableSC;
+import HashTable.Map;
+import HashTable.PolynomialHashFunction;
+import PriorityQueue.BinaryHeap;
+import PriorityQueue.PriorityQueue;
+
+/**
+ * An alphabet of the most frequent digrams and trigrams of a text, with every single char as a fallback.
+ *
+ * Text is split greedily into symbols: at every position the longest n-gram of the alphabet that starts there
+ * is taken, or the single char if none does. Those symbols are counted like chars by compute_fd() and go
+ * through huffman_tree() and huffman_code() unchanged, and since a decoded symbol is its whole n-gram,
+ * every table lookup while decoding yields up to n chars.
+ *
+ * N-grams are packed in a long (16 bits per char and the length above them) so counting never builds Strings.
+ */
+public class NGramAlphabet {
+
+	public static final int MAX_N = 3;
+	public static final int DEFAULT_TOP_K = 256;
+
+	/* A candidate n-gram while picking the most frequent ones */
+	private static class Candidate {
+		private final long key;
+		private final long count;
+
+		Candidate(long key, long count) {
+			this.key = key;
+			this.count = count;
+		}
+	}
+
+	private final int maxN;
+	private final LongCountTable ngrams; // Packed n-gram of the alphabet to its index in tokens
+	private final String[] tokens;
+
+	private NGramAlphabet(int maxN, String[] tokens) {
+		this.maxN = maxN;
+		this.tokens = tokens;
+		this.ngrams = new LongCountTable();
+		for (int i = 0; i < tokens.length; i++)
+			ngrams.put(pack(tokens[i], 0, tokens[i].length()), i);
+	}
+
+	/**
+	 * Picks the most frequent n-grams of a text.
+	 *
+	 * @param text the text whose n-grams are counted
+	 * @param maxN the longest n-grams, 2 for digrams or 3 for digrams and trigrams
+	 * @param topK the most n-grams in the alphabet, besides the single chars
+	 * @return the alphabet with the topK most frequent n-grams that appear at least twice
+	 */
+	public static NGramAlphabet train(CharSequence text, int maxN, int topK) {
+		if (maxN < 2 || maxN > MAX_N)
+			throw new IllegalArgumentException("N-grams must have between 2 and " + MAX_N + " chars.");
+		if (topK < 0)
+			throw new IllegalArgumentException("Top K cannot be negative.");
+
+		LongCountTable counts = new LongCountTable();
+		for (int i = 0; i < text.length(); i++)
+			for (int n = 2; n <= maxN && i + n <= text.length(); n++)
+				counts.add(pack(text, i, n), 1);
+
+		/* Keep the topK biggest counts in a min-heap, ties go to the smaller key so training is deterministic */
+		PriorityQueue<Candidate> heap = new BinaryHeap<Candidate>(Math.max(1, topK + 1), (a, b) -> a.count != b.count
+				? Long.compare(a.count, b.count) : Long.compare(b.key, a.key));
+		for (int slot = 0; slot < counts.capacity() && topK > 0; slot++) {
+			long count = counts.getValue(slot);
+			if (counts.getKey(slot) == 0 || count < 2)
+				continue;
+			if (heap.size() == topK) {
+				Candidate min = heap.min();
+				if (count < min.count || (count == min.count && counts.getKey(slot) > min.key))
+					continue;
+				heap.removeMin();
+			}
+			heap.add(new Candidate(counts.getKey(slot), count));
+		}
+
+		String[] tokens = new String[heap.size()];
+		for (int i = tokens.length - 1; i >= 0; i--)
+			tokens[i] = unpack(heap.removeMin().key);
+		return new NGramAlphabet(maxN, tokens);
+	}
+
+	public static NGramAlphabet train(CharSequence text) {
+		return train(text, MAX_N, DEFAULT_TOP_K);
+	}
+
+	/** @return the amount of n-grams in the alphabet, not counting the single chars */
+	public int size() {
+		return tokens.length;
+	}
+
+	/** @return the i-th n-gram, from the most frequent one */
+	public String getNGram(int i) {
+		return tokens[i];
+	}
+
+	/**
+	 * Counts the symbols of the greedy split of the text.
+	 *
+	 * @param text the text to split
+	 * @return Map with the n-grams and single chars as keys and their frequency as values
+	 */
+	public Map<String, Integer> compute_fd(CharSequence text) {
+		LongCountTable counts = new LongCountTable();
+		for (int i = 0; i < text.length(); ) {
+			int n = match(text, i);
+			counts.add(pack(text, i, n), 1);
+			i += n;
+		}
+		HashFunction<String> hash = new PolynomialHashFunction<String>();
+		Map<String, Integer> symFreq = new HashTableSC<String, Integer>(Math.max(1, 2 * counts.size()), hash);
+		for (int slot = 0; slot < counts.capacity(); slot++)
+			if (counts.getKey(slot) != 0)
+				symFreq.put(unpack(counts.getKey(slot)), (int) Math.min(Integer.MAX_VALUE, counts.getValue(slot)));
+		return symFreq;
+	}
+
+	/**
+	 * Splits the text greedily and writes the code of every symbol.
+	 *
+	 * @param text the text to encode
+	 * @param table the codes of the symbols, as built from compute_fd() of this alphabet
+	 * @param out where the codes are written
+	 * @throws IllegalArgumentException if a symbol has no code in the table
+	 */
+	public void encode(CharSequence text, CodeTable table, BitWriter out) {
+		/* Code table ids of the multi char symbols, by packed n-gram */
+		LongCountTable ids = new LongCountTable();
+		for (int id = 0; id < table.size(); id++)
+			if (table.getSymbol(id).length() > 1 && table.getSymbol(id).length() <= MAX_N)
+				ids.put(pack(table.getSymbol(id), 0, table.getSymbol(id).length()), id);
+
+		for (int i = 0; i < text.length(); ) {
+			int n = match(text, i);
+			int id = n == 1 ? table.idOf(text.charAt(i)) : (int) ids.get(pack(text, i, n), -1);
+			if (id < 0)
+				throw new IllegalArgumentException("Symbol '" + text.subSequence(i, i + n) + "' has no Huffman code.");
+			out.write(table.getCode(id), table.getLength(id));
+			i += n;
+		}
+	}
+
+	/* Length of the longest n-gram of the alphabet at position i, 1 if there is none */
+	private int match(CharSequence text, int i) {
+		for (int n = Math.min(maxN, text.length() - i); n >= 2; n--)
+			if (ngrams.get(pack(text, i, n), -1) >= 0)
+				return n;
+		return 1;
+	}
+
+	/* Packs up to MAX_N chars and their amount in a long that is never 0 */
+	private static long pack(CharSequence text, int offset, int n) {
+		long key = n;
+		for (int i = 0; i < n; i++)
+			key = (key << 16) | text.charAt(offset + i);
+		return key;
+	}
+
+	private static String unpack(long key) {
+		int n = key >>> 48 != 0 ? 3 : key >>> 32 != 0 ? 2 : 1;
+		char[] chars = new char[n];
+		for (int i = n - 1; i >= 0; i--) {
+			chars[i] = (char) key;
+			key >>>= 16;
+		}
+		return new String(chars);
+	}
+
+}
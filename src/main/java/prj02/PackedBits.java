@@ -0,0 +1,72 @@
+package prj02;
+
+/**
+ * A sequence of bits packed eight to a byte, most significant bit first,
+ * together with its exact length in bits. The last byte is padded with zeros.
+ */
+public class PackedBits {
+
+	private final byte[] data;
+	private final long bitLength;
+
+	public PackedBits(byte[] data, long bitLength) {
+		if (data == null)
+			throw new IllegalArgumentException("Data cannot be null.");
+		if (bitLength < 0 || (bitLength + 7) / 8 > data.length)
+			throw new IllegalArgumentException("Bit length does not fit in the data.");
+		this.data = data;
+		this.bitLength = bitLength;
+	}
+
+	/**
+	 * Packs a string of '0' and '1' characters, like the ones returned by {@link HuffmanCoding#encode}.
+	 *
+	 * @param bitString the string of '0' and '1' characters
+	 * @return the packed bits
+	 */
+	public static PackedBits fromBitString(String bitString) {
+		BitWriter writer = new BitWriter(Math.max(1, bitString.length() / 8 + 1));
+		for (int i = 0; i < bitString.length(); i++) {
+			char c = bitString.charAt(i);
+			if (c != '0' && c != '1')
+				throw new IllegalArgumentException("Bit strings can only contain '0' and '1'.");
+			writer.writeBit(c == '1');
+		}
+		return writer.toPackedBits();
+	}
+
+	public byte[] getBytes() {
+		return data;
+	}
+
+	public long bitLength() {
+		return bitLength;
+	}
+
+	/**
+	 * Returns the amount of bytes needed to store the bits, which is the real compressed size.
+	 *
+	 * @return the bit length rounded up to whole bytes
+	 */
+	public long byteLength() {
+		return (bitLength + 7) / 8;
+	}
+
+	public BitReader reader() {
+		return new BitReader(this);
+	}
+
+	/**
+	 * Unpacks the bits into a string of '0' and '1' characters. Meant for debugging and small outputs only.
+	 *
+	 * @return the bits as a string
+	 */
+	public String toBitString() {
+		StringBuilder sb = new StringBuilder((int) bitLength);
+		BitReader reader = reader();
+		while (reader.hasMore())
+			sb.append(reader.readBit() ? '1' : '0');
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,131 @@
+package prj02;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import List.ArrayList;
+import List.List;
+
+/**
+ * Decodes the blocks of a {@link HuffmanContainer} on several threads.
+ *
+ * Blocks carry their own code tables and original lengths, so they are decoded independently.
+ * In memory, every block decodes into its own slot of one pre-sized char array. When streaming,
+ * a bounded window of blocks is in flight and they are written out in order as they complete.
+ */
+public class ParallelBlockDecoder implements Closeable {
+
+	private final ForkJoinPool pool;
+	private final int window;
+
+	public ParallelBlockDecoder() {
+		this(Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a decoder with its own pool of threads.
+	 *
+	 * @param threads the amount of threads decoding at the same time
+	 * @param window the most blocks held in memory while streaming
+	 */
+	public ParallelBlockDecoder(int threads, int window) {
+		if (threads < 1)
+			throw new IllegalArgumentException("There must be at least 1 thread.");
+		if (window < 1)
+			throw new IllegalArgumentException("Window must hold at least 1 block.");
+		this.pool = new ForkJoinPool(threads);
+		this.window = window;
+	}
+
+	/**
+	 * Decodes every remaining block of a container into one string.
+	 *
+	 * @param in the container to decode
+	 * @return the chars of every remaining block
+	 * @throws IOException if the container cannot be read or a block is corrupt
+	 */
+	public String decode(ContainerReader in) throws IOException {
+		List<HuffmanContainer.Block> blocks = new ArrayList<HuffmanContainer.Block>();
+		long total = 0;
+		for (HuffmanContainer.Block block = in.nextRawBlock(); block != null; block = in.nextRawBlock()) {
+			blocks.add(block);
+			total += block.getOriginalLength();
+		}
+		if (total > Integer.MAX_VALUE - 8)
+			throw new IOException("Decoded text does not fit in a char array.");
+
+		/* Every block knows where it starts in the output, so blocks never share a slot */
+		char[] out = new char[(int) total];
+		Future<?>[] tasks = new Future<?>[blocks.size()];
+		int offset = 0;
+		for (int b = 0; b < blocks.size(); b++) {
+			HuffmanContainer.Block block = blocks.get(b);
+			int start = offset;
+			tasks[b] = pool.submit(() -> HuffmanContainer.decodeBlock(block, out, start));
+			offset += block.getOriginalLength();
+		}
+		for (Future<?> task : tasks)
+			await(task);
+		return new String(out);
+	}
+
+	/**
+	 * Decodes every remaining block of a container and writes the chars in order,
+	 * keeping at most window blocks in memory.
+	 *
+	 * @param in the container to decode
+	 * @param out where the decoded chars are written
+	 * @return the amount of chars written
+	 * @throws IOException if the container cannot be read, a block is corrupt or the output cannot be written
+	 */
+	public long decode(ContainerReader in, Writer out) throws IOException {
+		ArrayDeque<Future<char[]>> pending = new ArrayDeque<Future<char[]>>();
+		long written = 0;
+		try {
+			HuffmanContainer.Block block = in.nextRawBlock();
+			while (block != null || !pending.isEmpty()) {
+				/* Keep the window full, then write the oldest block once it is done */
+				while (block != null && pending.size() < window) {
+					HuffmanContainer.Block next = block;
+					pending.add(pool.submit(() -> {
+						char[] chars = new char[next.getOriginalLength()];
+						HuffmanContainer.decodeBlock(next, chars, 0);
+						return chars;
+					}));
+					block = in.nextRawBlock();
+				}
+				char[] chars = await(pending.remove());
+				out.write(chars);
+				written += chars.length;
+			}
+		} finally {
+			for (Future<char[]> task : pending)
+				task.cancel(true);
+		}
+		out.flush();
+		return written;
+	}
+
+	/* Waits for a block, turning what it threw into an IOException */
+	private static <T> T await(Future<T> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while decoding.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Corrupt block.", e.getCause());
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+}
@@ -0,0 +1,193 @@
+package prj02;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Encodes on several threads straight into one shared output buffer.
+ *
+ * Once the codes are known, the bits every chunk of the input takes are just the sum of its symbols' code lengths.
+ * A first parallel pass adds those lengths up per chunk, a prefix sum turns them into the bit offset where every chunk
+ * starts, and a second parallel pass writes every chunk at its offset. Bytes inside a chunk's range belong to that chunk
+ * alone; only the first and last byte of a chunk can be shared with its neighbours, so those are kept aside
+ * and or-ed into the output at the end.
+ */
+public class ParallelEncoder implements Closeable {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	/* Writes the codes of one chunk into the shared output, keeping aside the bytes it may share */
+	private static class ChunkWriter implements Callable<Void> {
+		private final CodeTable table;
+		private final CharSequence input;
+		private final int from, to;
+		private final byte[] out;
+		private final long offset;
+
+		private long accumulator;
+		private int accBits;
+		private int nextByte;
+		private int headIndex = -1, tailIndex = -1;
+		private byte headValue, tailValue;
+
+		ChunkWriter(CodeTable table, CharSequence input, int from, int to, byte[] out, long offset) {
+			this.table = table;
+			this.input = input;
+			this.from = from;
+			this.to = to;
+			this.out = out;
+			this.offset = offset;
+		}
+
+		@Override
+		public Void call() {
+			/* Start with zeros in place of the bits of the previous chunk that share the first byte */
+			nextByte = (int) (offset >>> 3);
+			accBits = (int) (offset & 7);
+			accumulator = 0;
+			for (int i = from; i < to; i++) {
+				int id = table.idOf(input.charAt(i));
+				write(table.getCode(id), table.getLength(id));
+			}
+			flushBytes();
+			if (accBits > 0) {
+				tailIndex = nextByte;
+				tailValue = (byte) (accumulator << (8 - accBits));
+			}
+			return null;
+		}
+
+		/* Same as BitWriter.write() */
+		private void write(long bits, int length) {
+			if (length > 32) {
+				write(bits >>> 32, length - 32);
+				write(bits, 32);
+				return;
+			}
+			if (accBits + length > 64)
+				flushBytes();
+			accumulator = (accumulator << length) | (bits & ((1L << length) - 1));
+			accBits += length;
+		}
+
+		private void flushBytes() {
+			while (accBits >= 8) {
+				byte b = (byte) (accumulator >>> (accBits - 8));
+				if (nextByte == (int) (offset >>> 3) && (offset & 7) != 0) {
+					headIndex = nextByte;
+					headValue = b;
+				} else
+					out[nextByte] = b;
+				nextByte++;
+				accBits -= 8;
+			}
+		}
+
+		/* Or-s the bytes shared with the neighbouring chunks into the output */
+		void stitch() {
+			if (headIndex >= 0)
+				out[headIndex] |= headValue;
+			if (tailIndex >= 0)
+				out[tailIndex] |= tailValue;
+		}
+	}
+
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	public ParallelEncoder() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates an encoder with its own pool of threads.
+	 *
+	 * @param threads the amount of threads encoding at the same time
+	 * @param chunkSize the amount of symbols every task encodes
+	 */
+	public ParallelEncoder(int threads, int chunkSize) {
+		if (threads < 1)
+			throw new IllegalArgumentException("There must be at least 1 thread.");
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("Chunk size must be at least 1");
+		this.pool = new ForkJoinPool(threads);
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Encodes the input with the code table, producing the same bits as CodeTable.encode().
+	 *
+	 * @param table the codes of every single character symbol
+	 * @param input the characters to encode
+	 * @return the packed encoded bits
+	 * @throws IllegalArgumentException if a character has no code in the table
+	 */
+	public PackedBits encode(CodeTable table, CharSequence input) {
+		int chunks = (int) (((long) input.length() + chunkSize - 1) / chunkSize);
+
+		/* First pass: the bit length of every chunk */
+		long[] offsets = new long[chunks + 1];
+		Future<?>[] sizes = new Future<?>[chunks];
+		for (int c = 0; c < chunks; c++) {
+			int chunk = c;
+			sizes[c] = pool.submit(() -> {
+				long bits = 0;
+				for (int i = chunk * chunkSize, end = end(chunk, input); i < end; i++) {
+					int id = table.idOf(input.charAt(i));
+					if (id < 0)
+						throw new IllegalArgumentException("Symbol '" + input.charAt(i) + "' has no Huffman code.");
+					bits += table.getLength(id);
+				}
+				offsets[chunk + 1] = bits;
+			});
+		}
+		await(sizes);
+
+		/* Prefix sum: where every chunk starts in the output */
+		for (int c = 0; c < chunks; c++)
+			offsets[c + 1] += offsets[c];
+		if ((offsets[chunks] + 7) / 8 > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Encoded input does not fit in a byte array.");
+		byte[] out = new byte[(int) ((offsets[chunks] + 7) / 8)];
+
+		/* Second pass: every chunk writes its bits at its offset */
+		ChunkWriter[] writers = new ChunkWriter[chunks];
+		Future<?>[] written = new Future<?>[chunks];
+		for (int c = 0; c < chunks; c++) {
+			writers[c] = new ChunkWriter(table, input, c * chunkSize, end(c, input), out, offsets[c]);
+			written[c] = pool.submit(writers[c]);
+		}
+		await(written);
+		for (ChunkWriter writer : writers)
+			writer.stitch();
+		return new PackedBits(out, offsets[chunks]);
+	}
+
+	private int end(int chunk, CharSequence input) {
+		return (int) Math.min(input.length(), (long) (chunk + 1) * chunkSize);
+	}
+
+	/* Waits for every task, rethrowing what they threw */
+	private static void await(Future<?>[] tasks) {
+		try {
+			for (Future<?> task : tasks)
+				task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while encoding.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+}
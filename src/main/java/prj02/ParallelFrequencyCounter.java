@@ -0,0 +1,118 @@
+package prj02;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts symbols on several threads with a ForkJoinPool.
+ *
+ * The input is split in halves until the pieces are no bigger than the chunk size, every piece is counted
+ * into its own SymbolHistogram, and the histograms are merged pairwise on the way back up (a tree reduction),
+ * so no counter is ever shared between threads.
+ */
+public class ParallelFrequencyCounter implements Closeable {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	/* Counts the symbols between from (inclusive) and to (exclusive) of some input */
+	private interface RangeCounter {
+		void count(SymbolHistogram histogram, int from, int to);
+	}
+
+	private static class CountTask extends RecursiveTask<SymbolHistogram> {
+		private static final long serialVersionUID = 1L;
+
+		private final RangeCounter counter;
+		private final int from, to, chunkSize;
+
+		CountTask(RangeCounter counter, int from, int to, int chunkSize) {
+			this.counter = counter;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected SymbolHistogram compute() {
+			if (to - from <= chunkSize) {
+				SymbolHistogram histogram = new SymbolHistogram();
+				counter.count(histogram, from, to);
+				return histogram;
+			}
+			int middle = from + (to - from) / 2;
+			CountTask left = new CountTask(counter, from, middle, chunkSize);
+			left.fork();
+			SymbolHistogram histogram = new CountTask(counter, middle, to, chunkSize).compute();
+			histogram.merge(left.join());
+			return histogram;
+		}
+	}
+
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	public ParallelFrequencyCounter() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a counter with its own pool of threads.
+	 *
+	 * @param threads the amount of threads counting at the same time
+	 * @param chunkSize the most symbols a single task counts
+	 */
+	public ParallelFrequencyCounter(int threads, int chunkSize) {
+		if (threads < 1)
+			throw new IllegalArgumentException("There must be at least 1 thread.");
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("Chunk size must be at least 1");
+		this.pool = new ForkJoinPool(threads);
+		this.chunkSize = chunkSize;
+	}
+
+	public int getThreads() {
+		return pool.getParallelism();
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public SymbolHistogram count(CharSequence input) {
+		return count((histogram, from, to) -> histogram.addChars(input, from, to), input.length());
+	}
+
+	public SymbolHistogram count(char[] input, int offset, int length) {
+		return count((histogram, from, to) -> histogram.addChars(input, offset + from, to - from), length);
+	}
+
+	/**
+	 * Counts the bytes of a memory mapped file, one window at a time, every window on all the threads.
+	 *
+	 * @param input the mapped file to count
+	 * @return the counts of every byte value, as the chars 0 to 255
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public SymbolHistogram count(MappedInput input) throws IOException {
+		SymbolHistogram total = new SymbolHistogram();
+		input.forEachWindow(window -> total.merge(count((histogram, from, to) -> {
+			ByteBuffer range = window.duplicate();
+			range.position(from).limit(to);
+			histogram.addBytes(range);
+		}, window.limit())));
+		return total;
+	}
+
+	private SymbolHistogram count(RangeCounter counter, int length) {
+		return pool.invoke(new CountTask(counter, 0, length, chunkSize));
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+}
@@ -0,0 +1,222 @@
+package prj02;
+
+import java.lang.management.ManagementFactory;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+/**
+ * Opt-in timing of the stages of the Huffman pipeline: for every stage, how many times it ran, its wall time,
+ * the bytes it read and wrote, the symbols it handled and the bytes it allocated on its thread.
+ *
+ * Metrics are off unless setEnabled(true) is called or the JVM runs with -Dhuffman.metrics=true; every stage then
+ * adds to totals that snapshot() reads. Independently, every stage commits a HuffmanStageEvent when a JFR recording
+ * has that event enabled. With both off, start() returns null after two checks, and end() returns right away on it.
+ *
+ * Allocated bytes come from com.sun.management.ThreadMXBean, and are -1 on JVMs that do not measure them.
+ */
+public final class PipelineMetrics {
+
+	/** The stages HuffmanEncodedResult runs */
+	public enum Stage {
+		LOAD, COUNT, TREE, CODE, ENCODE, PACK, DECODE
+	}
+
+	/** A stage that has started: where its time and allocations are measured from */
+	public static final class Span {
+		private final Stage stage;
+		private final long start;
+		private final long allocated;
+		private final HuffmanStageEvent event;
+
+		private Span(Stage stage, HuffmanStageEvent event) {
+			this.stage = stage;
+			this.event = event;
+			this.allocated = allocatedBytes();
+			this.start = System.nanoTime();
+		}
+	}
+
+	/** The totals of one stage */
+	public static final class StageMetrics {
+		private final Stage stage;
+		private final long calls, nanos, bytesIn, bytesOut, symbols, allocatedBytes;
+
+		private StageMetrics(Stage stage, long[] totals) {
+			this.stage = stage;
+			this.calls = totals[CALLS];
+			this.nanos = totals[NANOS];
+			this.bytesIn = totals[BYTES_IN];
+			this.bytesOut = totals[BYTES_OUT];
+			this.symbols = totals[SYMBOLS];
+			this.allocatedBytes = ALLOCATIONS == null ? -1 : totals[ALLOCATED];
+		}
+
+		public Stage getStage() {
+			return stage;
+		}
+
+		public long getCalls() {
+			return calls;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		public long getBytesIn() {
+			return bytesIn;
+		}
+
+		public long getBytesOut() {
+			return bytesOut;
+		}
+
+		public long getSymbols() {
+			return symbols;
+		}
+
+		/** @return the bytes allocated on the stage's thread while it ran, -1 if the JVM does not measure them */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		@Override
+		public String toString() {
+			DecimalFormat d = new DecimalFormat("##.###");
+			return stage + "\t" + calls + "\t" + d.format(nanos / 1e6) + " ms\t" + bytesIn + "\t" + bytesOut + "\t" + symbols + "\t"
+					+ allocatedBytes;
+		}
+	}
+
+	/** The totals of every stage at one moment */
+	public static final class Snapshot {
+		private final StageMetrics[] stages;
+
+		private Snapshot(StageMetrics[] stages) {
+			this.stages = stages;
+		}
+
+		public StageMetrics get(Stage stage) {
+			return stages[stage.ordinal()];
+		}
+
+		/** @return the wall time of every stage added up */
+		public long totalNanos() {
+			long nanos = 0;
+			for (StageMetrics stage : stages)
+				nanos += stage.nanos;
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder("Stage\tCalls\tTime\t\tBytes In\tBytes Out\tSymbols\tAllocated\n");
+			for (StageMetrics stage : stages)
+				if (stage.calls > 0)
+					sb.append(stage).append('\n');
+			return sb.toString();
+		}
+	}
+
+	private static final int CALLS = 0, NANOS = 1, BYTES_IN = 2, BYTES_OUT = 3, SYMBOLS = 4, ALLOCATED = 5;
+
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+	private static final long[][] totals = new long[Stage.values().length][ALLOCATED + 1];
+	private static volatile boolean enabled = Boolean.getBoolean("huffman.metrics");
+
+	private PipelineMetrics() {
+	}
+
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) bean;
+		if (!allocations.isThreadAllocatedMemorySupported())
+			return null;
+		if (!allocations.isThreadAllocatedMemoryEnabled())
+			allocations.setThreadAllocatedMemoryEnabled(true);
+		return allocations;
+	}
+
+	private static long allocatedBytes() {
+		return ALLOCATIONS == null ? 0 : ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		PipelineMetrics.enabled = enabled;
+	}
+
+	/**
+	 * Starts measuring a stage on the current thread.
+	 *
+	 * @param stage the stage that starts
+	 * @return the span to pass to end(), null if neither the metrics nor the JFR event are enabled
+	 */
+	public static Span start(Stage stage) {
+		HuffmanStageEvent event = new HuffmanStageEvent();
+		if (!enabled && !event.isEnabled())
+			return null;
+		event.begin();
+		return new Span(stage, event);
+	}
+
+	/**
+	 * Ends a stage started on the current thread, adding it to the totals and committing its JFR event.
+	 *
+	 * @param span the span returned by start(), may be null
+	 * @param bytesIn the bytes the stage read
+	 * @param bytesOut the bytes the stage wrote
+	 * @param symbols the symbols the stage handled
+	 */
+	public static void end(Span span, long bytesIn, long bytesOut, long symbols) {
+		if (span == null)
+			return;
+		long nanos = System.nanoTime() - span.start;
+		long allocated = allocatedBytes() - span.allocated;
+		if (enabled) {
+			synchronized (totals) {
+				long[] stage = totals[span.stage.ordinal()];
+				stage[CALLS]++;
+				stage[NANOS] += nanos;
+				stage[BYTES_IN] += bytesIn;
+				stage[BYTES_OUT] += bytesOut;
+				stage[SYMBOLS] += symbols;
+				stage[ALLOCATED] += allocated;
+			}
+		}
+		HuffmanStageEvent event = span.event;
+		event.end();
+		if (event.shouldCommit()) {
+			event.stage = span.stage.name();
+			event.bytesIn = bytesIn;
+			event.bytesOut = bytesOut;
+			event.symbols = symbols;
+			event.allocatedBytes = ALLOCATIONS == null ? -1 : allocated;
+			event.commit();
+		}
+	}
+
+	/** @return a copy of the totals of every stage */
+	public static Snapshot snapshot() {
+		StageMetrics[] stages = new StageMetrics[totals.length];
+		synchronized (totals) {
+			for (Stage stage : Stage.values())
+				stages[stage.ordinal()] = new StageMetrics(stage, totals[stage.ordinal()]);
+		}
+		return new Snapshot(stages);
+	}
+
+	/** Sets the totals of every stage back to 0 */
+	public static void reset() {
+		synchronized (totals) {
+			for (long[] stage : totals)
+				Arrays.fill(stage, 0);
+		}
+	}
+
+}
@@ -0,0 +1,204 @@
+package prj02;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes one Huffman stream without block boundaries on several threads.
+ *
+ * The bits are cut into segments and every thread starts decoding its segment at the segment's first bit,
+ * which is usually in the middle of a code. Huffman codes tend to self-synchronize: after a few wrong symbols
+ * a misaligned decode lands on a real code boundary and from there on matches the true decode. Every thread
+ * records the boundaries it finds in the first syncBits of its segment. A sequential pass then walks the
+ * segments in order: the true decode of a segment ends at the first code boundary at or after the next segment's
+ * start, and from there the pass decodes the next segment itself until it meets a boundary that segment's thread
+ * found too, which usually takes a few symbols. From that boundary on the thread's symbols are kept.
+ * If no recorded boundary is met the rest of the segment is decoded sequentially.
+ */
+public class SpeculativeDecoder implements Closeable {
+
+	public static final int DEFAULT_SEGMENT_BITS = 1 << 20;
+	public static final int DEFAULT_SYNC_BITS = 1 << 10;
+
+	/* What one thread decoded from the start of its segment */
+	private static class Segment {
+		int[] ids = new int[64];
+		int count;
+		long[] boundaries = new long[16]; // Where the first symbols start, to find the true alignment
+		int boundaryCount;
+		long end; // Where the decode crossed into the next segment, -1 if it hit an invalid code or ran past the data
+
+		void add(int id) {
+			if (count == ids.length)
+				ids = Arrays.copyOf(ids, 2 * count);
+			ids[count++] = id;
+		}
+
+		void addBoundary(long position) {
+			if (boundaryCount == boundaries.length)
+				boundaries = Arrays.copyOf(boundaries, 2 * boundaryCount);
+			boundaries[boundaryCount++] = position;
+		}
+	}
+
+	private final ForkJoinPool pool;
+	private final int segmentBits;
+	private final int syncBits;
+	private final AtomicLong segments = new AtomicLong();
+	private final AtomicLong fallbacks = new AtomicLong();
+
+	public SpeculativeDecoder() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_SEGMENT_BITS, DEFAULT_SYNC_BITS);
+	}
+
+	/**
+	 * Creates a decoder with its own pool of threads.
+	 *
+	 * @param threads the amount of threads decoding at the same time
+	 * @param segmentBits the amount of bits every thread decodes
+	 * @param syncBits how far into its segment every thread looks for the true alignment
+	 */
+	public SpeculativeDecoder(int threads, int segmentBits, int syncBits) {
+		if (threads < 1)
+			throw new IllegalArgumentException("There must be at least 1 thread.");
+		if (segmentBits < 64)
+			throw new IllegalArgumentException("Segments must have at least 64 bits.");
+		if (syncBits < 1 || syncBits > segmentBits)
+			throw new IllegalArgumentException("Sync bits must be between 1 and the segment bits.");
+		this.pool = new ForkJoinPool(threads);
+		this.segmentBits = segmentBits;
+		this.syncBits = syncBits;
+	}
+
+	/**
+	 * Decodes the packed bits, producing the same string as TableDecoder.decode().
+	 *
+	 * @param decoder the decoder of the codes the bits were encoded with
+	 * @param packed the encoded bits
+	 * @return the decoded symbols
+	 * @throws IllegalArgumentException if the bits are not a sequence of whole codes
+	 */
+	public String decode(TableDecoder decoder, PackedBits packed) {
+		long bits = packed.bitLength();
+		int count = (int) Math.max(1, (bits + segmentBits - 1) / segmentBits);
+
+		Future<?>[] tasks = new Future<?>[count];
+		Segment[] decoded = new Segment[count];
+		for (int s = 0; s < count; s++) {
+			int segment = s;
+			tasks[s] = pool.submit(() -> {
+				decoded[segment] = decodeFrom(decoder, packed, (long) segment * segmentBits, segmentEnd(segment, bits));
+			});
+		}
+		await(tasks);
+
+		/* Stitch the segments in order, decoding from the one alignment known to be true until it meets
+		 * a boundary the segment's thread found too; from there on the thread decoded the same symbols */
+		CodeTable table = decoder.getCodeTable();
+		StringBuilder sb = new StringBuilder();
+		BitReader in = new BitReader(packed);
+		long start = 0;
+		for (int s = 0; s < count; s++) {
+			Segment segment = decoded[s];
+			long end = segmentEnd(s, bits);
+			in.seek(Math.min(start, bits));
+			long position = start;
+			int first = -1;
+			if (segment.end >= 0) {
+				for (int b = 0; b < segment.boundaryCount && position < end; ) {
+					if (segment.boundaries[b] < position)
+						b++;
+					else if (segment.boundaries[b] == position) {
+						first = b;
+						break;
+					} else {
+						sb.append(table.getSymbol(decoder.decodeSymbol(in)));
+						position = in.position();
+					}
+				}
+			}
+			if (first >= 0) {
+				for (int i = first; i < segment.count; i++)
+					sb.append(table.getSymbol(segment.ids[i]));
+				start = segment.end;
+				continue;
+			}
+
+			/* Never synchronized, the rest of the segment is decoded sequentially */
+			if (position < end)
+				fallbacks.incrementAndGet();
+			while (position < end) {
+				sb.append(table.getSymbol(decoder.decodeSymbol(in)));
+				position = in.position();
+			}
+			start = position;
+		}
+		segments.addAndGet(count);
+		if (start != bits)
+			throw new IllegalArgumentException("Encoded data ends in the middle of a code.");
+		return sb.toString();
+	}
+
+	/** @return the amount of segments decoded so far */
+	public long getSegments() {
+		return segments.get();
+	}
+
+	/** @return the amount of segments that did not synchronize and were decoded again sequentially */
+	public long getFallbacks() {
+		return fallbacks.get();
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	private long segmentEnd(int segment, long bits) {
+		return Math.min(bits, (long) (segment + 1) * segmentBits);
+	}
+
+	/* Decodes every symbol starting before end, recording where the symbols in the sync window start */
+	private Segment decodeFrom(TableDecoder decoder, PackedBits packed, long start, long end) {
+		Segment segment = new Segment();
+		BitReader in = new BitReader(packed);
+		in.seek(start);
+		long syncEnd = start + syncBits;
+		try {
+			long position = start;
+			while (position < end) {
+				if (position < syncEnd)
+					segment.addBoundary(position);
+				segment.add(decoder.decodeSymbol(in));
+				position = in.position();
+			}
+			segment.end = position;
+		} catch (IllegalArgumentException e) {
+			segment.end = -1;
+		}
+		/* The true decode never reads past the data, a misaligned one can */
+		if (segment.end > packed.bitLength())
+			segment.end = -1;
+		return segment;
+	}
+
+	/* Waits for every task, rethrowing what they threw */
+	private static void await(Future<?>[] tasks) {
+		try {
+			for (Future<?> task : tasks)
+				task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while decoding.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+}
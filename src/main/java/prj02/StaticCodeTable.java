@@ -0,0 +1,196 @@
+package prj02;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import HashTable.Map;
+
+/**
+ * A code table trained ahead of time on a sample corpus, so tiny messages can be encoded without
+ * counting their symbols, building a tree or sending a table: messages only name the table by its id.
+ *
+ * Besides the chars of the corpus the table has an escape symbol (the empty string). In a message the escape
+ * code is followed by a 0 bit and the 16 bits of a char the corpus did not have, or by a 1 bit at the end.
+ *
+ * <pre>
+ * file = magic (4 bytes "HUFT") id (1 byte) header length (4 bytes) canonical code header, padded to a byte
+ * </pre>
+ */
+public class StaticCodeTable {
+
+	public static final int MAGIC = 0x48554654; // "HUFT"
+	public static final String ESCAPE = "";
+	public static final int MIN_ID = 1;
+	public static final int MAX_ID = 255;
+
+	private final int id;
+	private final CanonicalCode code;
+	private final CodeTable table;
+	private final TableDecoder decoder;
+	private final int escape; // Id of the escape symbol in the table
+
+	/**
+	 * Uses a canonical code that has an escape symbol.
+	 *
+	 * @param id the id messages name the table by, between MIN_ID and MAX_ID
+	 * @param code the code of the table
+	 */
+	public StaticCodeTable(int id, CanonicalCode code) {
+		if (id < MIN_ID || id > MAX_ID)
+			throw new IllegalArgumentException("Table ids must be between " + MIN_ID + " and " + MAX_ID + ".");
+		this.id = id;
+		this.code = code;
+		this.table = code.toCodeTable();
+		int escape = -1;
+		for (int i = 0; i < table.size(); i++) {
+			if (table.getSymbol(i).equals(ESCAPE))
+				escape = i;
+			else if (table.getSymbol(i).length() != 1)
+				throw new IllegalArgumentException("Static table symbols must be single chars.");
+		}
+		if (escape < 0)
+			throw new IllegalArgumentException("Static tables need an escape symbol.");
+		this.escape = escape;
+		this.decoder = table.size() == 1 ? null : new TableDecoder(table);
+	}
+
+	/**
+	 * Trains a table on sample messages.
+	 *
+	 * @param id the id messages name the table by
+	 * @param messages the sample messages, every one ends with an escape, and there is one escape more for unseen chars
+	 * @return the table with the Huffman code of the messages' chars and the escape symbol
+	 */
+	public static StaticCodeTable train(int id, Iterable<? extends CharSequence> messages) {
+		SymbolHistogram histogram = new SymbolHistogram();
+		int count = 0;
+		for (CharSequence message : messages) {
+			histogram.addChars(message);
+			count++;
+		}
+		Map<String, Integer> fD = histogram.toFrequencyMap();
+		fD.put(ESCAPE, count + 1);
+		return new StaticCodeTable(id, CanonicalCode.fromTree(HuffmanCoding.huffman_tree(fD)));
+	}
+
+	public void save(OutputStream out) throws IOException {
+		BitWriter header = new BitWriter();
+		code.writeHeader(header);
+		byte[] bytes = header.toPackedBits().getBytes();
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeByte(id);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+		data.flush();
+	}
+
+	public void save(String path) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(path))) {
+			save(out);
+		}
+	}
+
+	/**
+	 * Reads a table written by save().
+	 *
+	 * @param in where the table is read from
+	 * @return the table
+	 * @throws IOException if the table cannot be read or is not a static table
+	 */
+	public static StaticCodeTable load(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC)
+			throw new IOException("Not a static code table.");
+		int id = data.readUnsignedByte();
+		int length = data.readInt();
+		if (length < 0)
+			throw new IOException("Corrupt static code table.");
+		byte[] bytes = new byte[length];
+		data.readFully(bytes);
+		try {
+			return new StaticCodeTable(id, CanonicalCode.readHeader(new BitReader(bytes, (long) length * 8)));
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupt static code table.", e);
+		}
+	}
+
+	public static StaticCodeTable load(String path) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(path))) {
+			return load(in);
+		}
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public CanonicalCode getCode() {
+		return code;
+	}
+
+	/**
+	 * Returns how many bits encode() would write, without writing them.
+	 *
+	 * @param message the message
+	 * @return the bits of the message's codes, escapes and end
+	 */
+	public long cost(CharSequence message) {
+		long bits = table.getLength(escape) + 1;
+		for (int i = 0; i < message.length(); i++) {
+			int c = table.idOf(message.charAt(i));
+			bits += c < 0 ? table.getLength(escape) + 17 : table.getLength(c);
+		}
+		return bits;
+	}
+
+	/**
+	 * Writes the codes of a message and its end.
+	 *
+	 * @param message the message
+	 * @param out where the codes are written
+	 */
+	public void encode(CharSequence message, BitWriter out) {
+		for (int i = 0; i < message.length(); i++) {
+			char c = message.charAt(i);
+			int symbol = table.idOf(c);
+			if (symbol >= 0)
+				out.write(table.getCode(symbol), table.getLength(symbol));
+			else {
+				out.write(table.getCode(escape), table.getLength(escape));
+				out.write(c, 17); // A 0 flag bit, then the char
+			}
+		}
+		out.write(table.getCode(escape), table.getLength(escape));
+		out.writeBit(true);
+	}
+
+	/**
+	 * Decodes a message up to its end.
+	 *
+	 * @param in the reader positioned at the first code of the message
+	 * @param out where the decoded chars are appended
+	 * @throws IllegalArgumentException if the bits are not a sequence of whole codes
+	 */
+	public void decode(BitReader in, StringBuilder out) {
+		while (true) {
+			if (!in.hasMore())
+				throw new IllegalArgumentException("Message ends before its end code.");
+			int symbol = decoder == null ? escape : decoder.decodeSymbol(in);
+			if (symbol != escape)
+				out.append(table.getSymbol(symbol));
+			else if (in.readBit())
+				return;
+			else
+				out.append((char) in.read(16));
+		}
+	}
+
+}
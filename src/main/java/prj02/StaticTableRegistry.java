@@ -0,0 +1,153 @@
+package prj02;
+
+import java.io.IOException;
+
+import HashTable.Map;
+
+/**
+ * The static code tables loaded at startup, and the encoding of tiny messages with them.
+ *
+ * A message starts with a byte naming the table its codes come from. Every registered table is priced
+ * for the message, and the cheapest one is used unless a table built for the message alone, sent along with it,
+ * takes fewer bytes; then the byte is DYNAMIC (0) and the canonical header of that table follows.
+ * Dynamic tables end messages with the code of the empty string symbol.
+ */
+public class StaticTableRegistry {
+
+	public static final int DYNAMIC = 0;
+	public static final String END = "";
+
+	private final StaticCodeTable[] tables = new StaticCodeTable[StaticCodeTable.MAX_ID + 1];
+
+	/**
+	 * Loads every table file.
+	 *
+	 * @param paths the files written by StaticCodeTable.save()
+	 * @return a registry with every table
+	 * @throws IOException if a table cannot be read, or two tables have the same id
+	 */
+	public static StaticTableRegistry load(String... paths) throws IOException {
+		StaticTableRegistry registry = new StaticTableRegistry();
+		for (String path : paths) {
+			StaticCodeTable table = StaticCodeTable.load(path);
+			if (registry.get(table.getId()) != null)
+				throw new IOException("Table id " + table.getId() + " of " + path + " is already taken.");
+			registry.register(table);
+		}
+		return registry;
+	}
+
+	/**
+	 * Adds a table, replacing the one with the same id.
+	 *
+	 * @param table the table
+	 */
+	public void register(StaticCodeTable table) {
+		tables[table.getId()] = table;
+	}
+
+	/** @return the table with the id, null if there is none */
+	public StaticCodeTable get(int id) {
+		return id >= StaticCodeTable.MIN_ID && id <= StaticCodeTable.MAX_ID ? tables[id] : null;
+	}
+
+	/**
+	 * Encodes a message with the table that makes it smallest.
+	 *
+	 * @param message the message
+	 * @return the table byte and the padded codes
+	 */
+	public byte[] encode(CharSequence message) {
+		StaticCodeTable best = null;
+		long bestBits = Long.MAX_VALUE;
+		for (StaticCodeTable table : tables) {
+			if (table == null)
+				continue;
+			long bits = table.cost(message);
+			if (bits < bestBits) {
+				best = table;
+				bestBits = bits;
+			}
+		}
+
+		/* Only build the dynamic table if a static one could lose to it: it costs at least a bit per char */
+		BitWriter writer = new BitWriter();
+		int id = DYNAMIC;
+		if (best == null || bestBits > message.length())
+			writeDynamic(message, writer);
+		if (best != null && (writer.bitLength() == 0 || (bestBits + 7) / 8 <= (writer.bitLength() + 7) / 8)) {
+			writer = new BitWriter();
+			best.encode(message, writer);
+			id = best.getId();
+		}
+
+		byte[] bits = writer.toPackedBits().getBytes();
+		byte[] result = new byte[bits.length + 1];
+		result[0] = (byte) id;
+		System.arraycopy(bits, 0, result, 1, bits.length);
+		return result;
+	}
+
+	/**
+	 * Decodes a message written by encode().
+	 *
+	 * @param message the table byte and the padded codes
+	 * @return the decoded message
+	 * @throws IllegalArgumentException if the message names an unknown table or its bits are corrupt
+	 */
+	public String decode(byte[] message) {
+		if (message.length == 0)
+			throw new IllegalArgumentException("Message is empty.");
+		byte[] bits = new byte[message.length - 1];
+		System.arraycopy(message, 1, bits, 0, bits.length);
+		BitReader in = new BitReader(bits, (long) bits.length * 8);
+		StringBuilder sb = new StringBuilder();
+
+		int id = message[0] & 0xFF;
+		if (id != DYNAMIC) {
+			StaticCodeTable table = get(id);
+			if (table == null)
+				throw new IllegalArgumentException("Unknown static table " + id + ".");
+			table.decode(in, sb);
+			return sb.toString();
+		}
+
+		CodeTable table = CanonicalCode.readHeader(in).toCodeTable();
+		/* A lone symbol has an empty code, and only the empty message has END as its lone symbol */
+		if (table.size() == 1) {
+			if (!table.getSymbol(0).equals(END))
+				throw new IllegalArgumentException("Message has no end code.");
+			return "";
+		}
+		TableDecoder decoder = new TableDecoder(table);
+		while (true) {
+			if (!in.hasMore())
+				throw new IllegalArgumentException("Message ends before its end code.");
+			String symbol = table.getSymbol(decoder.decodeSymbol(in));
+			if (symbol.equals(END))
+				return sb.toString();
+			sb.append(symbol);
+		}
+	}
+
+	/** @return the id of the table a message was encoded with, DYNAMIC for its own table */
+	public static int tableOf(byte[] message) {
+		return message[0] & 0xFF;
+	}
+
+	/* A table built for the message alone, its header, codes and end */
+	private static void writeDynamic(CharSequence message, BitWriter out) {
+		SymbolHistogram histogram = new SymbolHistogram();
+		histogram.addChars(message);
+		Map<String, Integer> fD = histogram.toFrequencyMap();
+		fD.put(END, 1);
+		CanonicalCode code = CanonicalCode.fromTree(HuffmanCoding.huffman_tree(fD));
+		code.writeHeader(out);
+		CodeTable table = code.toCodeTable();
+		table.encode(message, out);
+		for (int id = 0; id < table.size(); id++)
+			if (table.getSymbol(id).equals(END))
+				out.write(table.getCode(id), table.getLength(id));
+	}
+
+}
@@ -0,0 +1,159 @@
+package prj02;
+
+import java.nio.ByteBuffer;
+
+import HashTable.HashFunction;
+import HashTable.HashTableSC;
+import HashTable.Map;
+import HashTable.SimpleHashFunction;
+
+/**
+ * Counts single character symbols in primitive arrays, with no allocation per counted symbol.
+ *
+ * The 65536 possible chars are split in 256 blocks of 256 counters that are only allocated once
+ * a char of that block shows up, so ASCII text uses a single long[256], which is also what bytes are counted in.
+ * Counts are only turned into a Map with String keys by toFrequencyMap(), at the API boundary.
+ */
+public class SymbolHistogram {
+
+	private static final int BLOCK_BITS = 8;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+	private final long[][] blocks;
+
+	public SymbolHistogram() {
+		blocks = new long[BLOCK_SIZE][];
+	}
+
+	public void add(char c) {
+		block(c >>> BLOCK_BITS)[c & (BLOCK_SIZE - 1)]++;
+	}
+
+	public void addChars(CharSequence chars) {
+		addChars(chars, 0, chars.length());
+	}
+
+	/**
+	 * Counts the chars from index from to index to, without copying them out of the sequence.
+	 *
+	 * @param chars the chars to count
+	 * @param from the index of the first char counted
+	 * @param to the index after the last char counted
+	 */
+	public void addChars(CharSequence chars, int from, int to) {
+		for (int i = from; i < to; i++) {
+			char c = chars.charAt(i);
+			long[] block = blocks[c >>> BLOCK_BITS];
+			if (block == null)
+				block = block(c >>> BLOCK_BITS);
+			block[c & (BLOCK_SIZE - 1)]++;
+		}
+	}
+
+	public void addChars(char[] chars, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			char c = chars[i];
+			long[] block = blocks[c >>> BLOCK_BITS];
+			if (block == null)
+				block = block(c >>> BLOCK_BITS);
+			block[c & (BLOCK_SIZE - 1)]++;
+		}
+	}
+
+	/**
+	 * Counts the bytes from the buffer's position to its limit, as the chars 0 to 255. The position is not moved.
+	 *
+	 * @param bytes the bytes to count
+	 */
+	public void addBytes(ByteBuffer bytes) {
+		long[] counts = block(0);
+		for (int i = bytes.position(), end = bytes.limit(); i < end; i++)
+			counts[bytes.get(i) & 0xFF]++;
+	}
+
+	/**
+	 * Adds the counts of another histogram to this one.
+	 *
+	 * @param other the histogram to add
+	 */
+	public void merge(SymbolHistogram other) {
+		for (int b = 0; b < BLOCK_SIZE; b++) {
+			if (other.blocks[b] == null)
+				continue;
+			long[] block = block(b);
+			for (int i = 0; i < BLOCK_SIZE; i++)
+				block[i] += other.blocks[b][i];
+		}
+	}
+
+	public long count(char c) {
+		long[] block = blocks[c >>> BLOCK_BITS];
+		return block == null ? 0 : block[c & (BLOCK_SIZE - 1)];
+	}
+
+	/**
+	 * Returns the amount of symbols counted.
+	 *
+	 * @return the sum of every count
+	 */
+	public long total() {
+		long total = 0;
+		for (long[] block : blocks)
+			if (block != null)
+				for (long count : block)
+					total += count;
+		return total;
+	}
+
+	/**
+	 * Returns the amount of different symbols counted.
+	 *
+	 * @return the amount of chars with a count bigger than 0
+	 */
+	public int distinct() {
+		int distinct = 0;
+		for (long[] block : blocks)
+			if (block != null)
+				for (long count : block)
+					if (count > 0)
+						distinct++;
+		return distinct;
+	}
+
+	/**
+	 * Returns the counts as a frequency map with one String of a single char per symbol.
+	 *
+	 * Huffman trees add all the frequencies up in an Integer, so if the total does not fit
+	 * every count is scaled down proportionally, keeping at least 1 so no symbol loses its code.
+	 *
+	 * @return Map with symbols as keys and frequency as values of each key.
+	 */
+	public Map<String, Integer> toFrequencyMap() {
+		int distinct = distinct();
+		long total = total();
+		/* Leave room for the counts rounded up to 1 */
+		long limit = Integer.MAX_VALUE - distinct;
+		HashFunction<String> hash = new SimpleHashFunction<String>();
+		Map<String, Integer> symFreq = new HashTableSC<String, Integer>(Math.max(1, distinct * 2), hash);
+		for (int b = 0; b < BLOCK_SIZE; b++) {
+			if (blocks[b] == null)
+				continue;
+			for (int i = 0; i < BLOCK_SIZE; i++) {
+				long count = blocks[b][i];
+				if (count == 0)
+					continue;
+				long frequency = total <= limit ? count : Math.max(1, (long) (count * ((double) limit / total)));
+				symFreq.put(String.valueOf((char) ((b << BLOCK_BITS) | i)), (int) frequency);
+			}
+		}
+		return symFreq;
+	}
+
+	/* Returns the block of counters, allocating it the first time */
+	private long[] block(int b) {
+		if (blocks[b] == null)
+			blocks[b] = new long[BLOCK_SIZE];
+		return blocks[b];
+	}
+
+}
@@ -0,0 +1,175 @@
+package prj02;
+
+/**
+ * Decodes Huffman codes by peeking a fixed amount of bits and looking the symbol up in a table,
+ * instead of growing a candidate code one bit at a time and searching for it.
+ *
+ * The root table is indexed by the next rootBits bits of the input. Codes that fit in the root table
+ * are resolved with one lookup, longer codes point to a second level table indexed by the bits that follow,
+ * and so on for the rare codes that do not fit in two levels. All the tables live in one int array:
+ * <ul>
+ * <li>0 means no code starts with those bits</li>
+ * <li>a positive entry is (symbol id &lt;&lt; 7) | bits of the code left in this level</li>
+ * <li>a negative entry is ~((offset of the next table &lt;&lt; 5) | bits of the next table)</li>
+ * </ul>
+ */
+public class TableDecoder {
+
+	private static final int DEFAULT_ROOT_BITS = 10;
+	private static final int SUB_BITS = 8;
+
+	private final CodeTable table;
+	private final int rootBits;
+	private int[] entries;
+	private int used; // Entries taken by the tables created so far
+
+	public TableDecoder(CodeTable table) {
+		this(table, DEFAULT_ROOT_BITS);
+	}
+
+	/**
+	 * Builds the lookup tables for every code in the code table.
+	 *
+	 * @param table the codes to decode
+	 * @param maxRootBits the most bits the root table is indexed by
+	 * @throws IllegalArgumentException if the codes are not a prefix code
+	 */
+	public TableDecoder(CodeTable table, int maxRootBits) {
+		if (maxRootBits < 1 || maxRootBits > 20)
+			throw new IllegalArgumentException("Root table bits must be between 1 and 20.");
+		if (table.size() >= (1 << 24))
+			throw new IllegalArgumentException("Too many symbols for a decode table.");
+		this.table = table;
+
+		int maxLength = 0;
+		for (int id = 0; id < table.size(); id++)
+			maxLength = Math.max(maxLength, table.getLength(id));
+		rootBits = Math.max(1, Math.min(maxRootBits, maxLength));
+		entries = new int[1 << rootBits];
+		used = entries.length;
+
+		for (int id = 0; id < table.size(); id++) {
+			if (table.getLength(id) > 0)
+				addCode(id, table.getCode(id), table.getLength(id), maxLength);
+			else if (table.size() > 1)
+				throw new IllegalArgumentException("Only a lone symbol can have an empty code.");
+		}
+	}
+
+	public CodeTable getCodeTable() {
+		return table;
+	}
+
+	/**
+	 * Decodes the next symbol of the input.
+	 *
+	 * @param in the reader positioned at the start of a code
+	 * @return the id of the symbol in the code table
+	 * @throws IllegalArgumentException if the bits are not the start of any code
+	 */
+	public int decodeSymbol(BitReader in) {
+		int offset = 0;
+		int bits = rootBits;
+		while (true) {
+			int entry = entries[offset + in.peek(bits)];
+			if (entry > 0) {
+				in.skip(entry & 0x7F);
+				return entry >>> 7;
+			}
+			if (entry == 0)
+				throw new IllegalArgumentException("Invalid Huffman code at bit " + in.position() + ".");
+			in.skip(bits);
+			int next = ~entry;
+			offset = next >>> 5;
+			bits = next & 31;
+		}
+	}
+
+	/**
+	 * Decodes every symbol left in the reader and appends it to the result.
+	 *
+	 * @param in the reader with the encoded bits
+	 * @param out where the decoded symbols are appended
+	 * @throws IllegalArgumentException if the bits are not a sequence of whole codes
+	 */
+	public void decode(BitReader in, StringBuilder out) {
+		long end = in.position() + in.remaining();
+		while (in.hasMore())
+			out.append(table.getSymbol(decodeSymbol(in)));
+		if (in.position() != end)
+			throw new IllegalArgumentException("Encoded data ends in the middle of a code.");
+	}
+
+	/**
+	 * Decodes a known amount of symbols and appends them to the result. Bits after the last symbol are left in the reader.
+	 *
+	 * @param in the reader with the encoded bits
+	 * @param count the amount of symbols to decode
+	 * @param out where the decoded symbols are appended
+	 * @throws IllegalArgumentException if the bits are not a sequence of whole codes
+	 */
+	public void decode(BitReader in, long count, StringBuilder out) {
+		long end = in.position() + in.remaining();
+		for (long i = 0; i < count; i++)
+			out.append(table.getSymbol(decodeSymbol(in)));
+		if (in.position() > end)
+			throw new IllegalArgumentException("Encoded data ends in the middle of a code.");
+	}
+
+	/**
+	 * Decodes the packed bits into a string.
+	 *
+	 * @param bits the encoded bits
+	 * @return the decoded string
+	 */
+	public String decode(PackedBits bits) {
+		StringBuilder sb = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, bits.bitLength()));
+		decode(bits.reader(), sb);
+		return sb.toString();
+	}
+
+	/* Walks down the tables for the code, creating the missing ones, and fills the entries the code owns */
+	private void addCode(int id, long code, int length, int maxLength) {
+		int offset = 0;
+		int bits = rootBits;
+		int consumed = 0;
+		while (length - consumed > bits) {
+			int index = offset + (int) ((code >>> (length - consumed - bits)) & ((1L << bits) - 1));
+			if (entries[index] > 0)
+				throw new IllegalArgumentException("Codes are not prefix free.");
+			if (entries[index] == 0) {
+				int childBits = Math.min(SUB_BITS, maxLength - consumed - bits);
+				int child = allocate(childBits); // May replace the entries array, so do it before storing
+				entries[index] = ~((child << 5) | childBits);
+			}
+			int next = ~entries[index];
+			consumed += bits;
+			offset = next >>> 5;
+			bits = next & 31;
+		}
+
+		/* The code ends in this table, so it owns every entry whose index starts with its remaining bits */
+		int remaining = length - consumed;
+		int first = offset + ((int) (code & ((1L << remaining) - 1)) << (bits - remaining));
+		for (int i = 0; i < (1 << (bits - remaining)); i++) {
+			if (entries[first + i] != 0)
+				throw new IllegalArgumentException("Codes are not prefix free.");
+			entries[first + i] = (id << 7) | remaining;
+		}
+	}
+
+	/* Reserves a table indexed by the given bits at the end of the entries and returns its offset */
+	private int allocate(int bits) {
+		int offset = used;
+		if ((long) used + (1 << bits) > (1 << 26))
+			throw new IllegalArgumentException("Decode tables are too big.");
+		used += 1 << bits;
+		if (used > entries.length) {
+			int[] newEntries = new int[Math.max(used, entries.length * 2)];
+			System.arraycopy(entries, 0, newEntries, 0, entries.length);
+			entries = newEntries;
+		}
+		return offset;
+	}
+
+}
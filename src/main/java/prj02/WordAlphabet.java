@@ -0,0 +1,279 @@
+package prj02;
+
+import HashTable.HashTableSC;
+import HashTable.Map;
+import HashTable.PolynomialHashFunction;
+import PriorityQueue.BinaryHeap;
+import PriorityQueue.PriorityQueue;
+
+/**
+ * A word level alphabet: text is split into tokens, every maximal run of letters and digits
+ * and every maximal run of anything else (spaces, punctuation, line breaks), and the topN most frequent
+ * tokens get Huffman codes of their own.
+ *
+ * Any other token is written as the escape code followed by its chars, coded with a second, character level
+ * Huffman code that ends every spelled token with an end code. Both tables stay small no matter how many
+ * distinct words the text has. The empty string stands for the escape symbol in the word table and for
+ * the end symbol in the char table, since no token and no char is empty.
+ *
+ * <pre>
+ * encoded = token count (64 bits) word code header (see CanonicalCode.writeHeader())
+ *           has char code (1 bit) [char code header] codes
+ * </pre>
+ */
+public class WordAlphabet {
+
+	public static final int DEFAULT_TOP_N = 1024;
+	public static final String ESCAPE = "";
+	public static final String END = "";
+
+	/* A candidate word while picking the most frequent ones */
+	private static class Candidate {
+		private final String word;
+		private final int count;
+
+		Candidate(String word, int count) {
+			this.word = word;
+			this.count = count;
+		}
+	}
+
+	/** Receives the tokens of a text, see tokenize() */
+	public interface TokenConsumer {
+		void accept(String token);
+	}
+
+	private final Map<String, Integer> words; // Word to its rank, from the most frequent one
+
+	private WordAlphabet(String[] ranked) {
+		words = new HashTableSC<String, Integer>(Math.max(1, 2 * ranked.length), new PolynomialHashFunction<String>());
+		for (int i = 0; i < ranked.length; i++)
+			words.put(ranked[i], i);
+	}
+
+	/**
+	 * Picks the most frequent tokens of a text.
+	 *
+	 * @param text the text whose tokens are counted
+	 * @param topN the most tokens with a code of their own
+	 * @return the alphabet with the topN most frequent tokens
+	 */
+	public static WordAlphabet train(CharSequence text, int topN) {
+		if (topN < 0)
+			throw new IllegalArgumentException("Top N cannot be negative.");
+		Map<String, Integer> counts = countTokens(text);
+
+		/* Keep the topN biggest counts in a min-heap, ties go to the smaller word so training is deterministic */
+		PriorityQueue<Candidate> heap = new BinaryHeap<Candidate>(Math.max(1, topN + 1), (a, b) -> a.count != b.count
+				? Integer.compare(a.count, b.count) : b.word.compareTo(a.word));
+		for (String word : counts.getKeys()) {
+			if (topN == 0)
+				break;
+			Candidate candidate = new Candidate(word, counts.get(word));
+			heap.add(candidate);
+			if (heap.size() > topN)
+				heap.removeMin();
+		}
+
+		String[] ranked = new String[heap.size()];
+		for (int i = ranked.length - 1; i >= 0; i--)
+			ranked[i] = heap.removeMin().word;
+		return new WordAlphabet(ranked);
+	}
+
+	public static WordAlphabet train(CharSequence text) {
+		return train(text, DEFAULT_TOP_N);
+	}
+
+	/**
+	 * Splits the text into maximal runs of letters and digits and maximal runs of other chars.
+	 *
+	 * @param text the text to split
+	 * @param consumer receives every token in order
+	 */
+	public static void tokenize(CharSequence text, TokenConsumer consumer) {
+		int start = 0;
+		for (int i = 1; i <= text.length(); i++) {
+			if (i == text.length() || isWordChar(text.charAt(i)) != isWordChar(text.charAt(start))) {
+				consumer.accept(text.subSequence(start, i).toString());
+				start = i;
+			}
+		}
+	}
+
+	/** @return the amount of tokens with a code of their own */
+	public int size() {
+		return words.size();
+	}
+
+	public boolean contains(String token) {
+		return words.containsKey(token);
+	}
+
+	/**
+	 * Counts the symbols of the word table: every token of the alphabet, and the escape symbol for every other token.
+	 *
+	 * @param text the text to count
+	 * @return Map with the tokens (and ESCAPE) as keys and their frequency as values
+	 */
+	public Map<String, Integer> compute_fd(CharSequence text) {
+		Map<String, Integer> symFreq = new HashTableSC<String, Integer>(Math.max(1, 2 * size() + 2), new PolynomialHashFunction<String>());
+		tokenize(text, token -> {
+			String symbol = contains(token) ? token : ESCAPE;
+			Integer frequency = symFreq.get(symbol);
+			symFreq.put(symbol, frequency == null ? 1 : frequency + 1);
+		});
+		return symFreq;
+	}
+
+	/**
+	 * Counts the symbols of the char table: the chars of every escaped token, and the end symbol once per escaped token.
+	 *
+	 * @param text the text to count
+	 * @return Map with the chars (and END) as keys and their frequency as values, empty if no token is escaped
+	 */
+	public Map<String, Integer> compute_char_fd(CharSequence text) {
+		SymbolHistogram histogram = new SymbolHistogram();
+		int[] ends = new int[1];
+		tokenize(text, token -> {
+			if (!contains(token)) {
+				histogram.addChars(token);
+				ends[0]++;
+			}
+		});
+		Map<String, Integer> symFreq = histogram.toFrequencyMap();
+		if (ends[0] > 0)
+			symFreq.put(END, ends[0]);
+		return symFreq;
+	}
+
+	/**
+	 * Encodes the text with a word table built from it, and a char table for the tokens it escapes.
+	 *
+	 * @param text the text to encode
+	 * @return the packed header and codes, see decode()
+	 */
+	public PackedBits encode(CharSequence text) {
+		Map<String, Integer> wordFd = compute_fd(text);
+		Map<String, Integer> charFd = compute_char_fd(text);
+		BitWriter out = new BitWriter(Math.max(16, text.length() / 4));
+		long[] tokens = new long[1];
+		tokenize(text, token -> tokens[0]++);
+		out.write(tokens[0], 64);
+		if (tokens[0] == 0)
+			return out.toPackedBits();
+
+		CanonicalCode wordCode = CanonicalCode.fromTree(HuffmanCoding.huffman_tree(wordFd));
+		wordCode.writeHeader(out);
+		CodeTable wordTable = wordCode.toCodeTable();
+		Map<String, Integer> wordIds = new HashTableSC<String, Integer>(Math.max(1, 2 * wordTable.size()), new PolynomialHashFunction<String>());
+		for (int id = 0; id < wordTable.size(); id++)
+			wordIds.put(wordTable.getSymbol(id), id);
+
+		out.writeBit(!charFd.isEmpty());
+		CodeTable charTable = null;
+		if (!charFd.isEmpty()) {
+			CanonicalCode charCode = CanonicalCode.fromTree(HuffmanCoding.huffman_tree(charFd));
+			charCode.writeHeader(out);
+			charTable = charCode.toCodeTable();
+		}
+		int end = -1;
+		for (int id = 0; charTable != null && id < charTable.size(); id++)
+			if (charTable.getSymbol(id).equals(END))
+				end = id;
+
+		CodeTable chars = charTable;
+		int endId = end;
+		tokenize(text, token -> {
+			Integer id = wordIds.get(contains(token) ? token : ESCAPE);
+			out.write(wordTable.getCode(id), wordTable.getLength(id));
+			if (contains(token))
+				return;
+			for (int i = 0; i < token.length(); i++) {
+				int c = chars.idOf(token.charAt(i));
+				out.write(chars.getCode(c), chars.getLength(c));
+			}
+			out.write(chars.getCode(endId), chars.getLength(endId));
+		});
+		return out.toPackedBits();
+	}
+
+	/**
+	 * Decodes the bits produced by encode(), which carry both code tables.
+	 *
+	 * @param packed the packed header and codes
+	 * @return the decoded text
+	 * @throws IllegalArgumentException if the bits are not a sequence of whole codes
+	 */
+	public static String decode(PackedBits packed) {
+		BitReader in = new BitReader(packed);
+		if (in.remaining() < 64)
+			throw new IllegalArgumentException("Encoded data is truncated.");
+		long tokens = in.read(64);
+		StringBuilder sb = new StringBuilder();
+		if (tokens == 0)
+			return sb.toString();
+		/* Every token but a lone one takes at least a bit, so a bigger count is corrupt */
+		if (tokens < 0 || tokens - 1 > in.remaining())
+			throw new IllegalArgumentException("Token count does not fit the encoded data.");
+		CodeTable wordTable = CanonicalCode.readHeader(in).toCodeTable();
+		if (!in.hasMore())
+			throw new IllegalArgumentException("Encoded data is truncated.");
+		CodeTable charTable = in.readBit() ? CanonicalCode.readHeader(in).toCodeTable() : null;
+		TableDecoder words = decoder(wordTable);
+		TableDecoder chars = charTable == null ? null : decoder(charTable);
+		if (words == null && tokens > 1 && !wordTable.getSymbol(0).equals(ESCAPE))
+			throw new IllegalArgumentException("Token count does not fit the encoded data.");
+		if (charTable != null && !hasSymbol(charTable, END))
+			throw new IllegalArgumentException("Char table has no end code.");
+
+		for (long t = 0; t < tokens; t++) {
+			if (words != null && !in.hasMore())
+				throw new IllegalArgumentException("Encoded data ends before its last token.");
+			String word = wordTable.getSymbol(words == null ? 0 : words.decodeSymbol(in));
+			if (!word.equals(ESCAPE)) {
+				sb.append(word);
+				continue;
+			}
+			if (charTable == null)
+				throw new IllegalArgumentException("Escaped token without a char table.");
+			while (true) {
+				if (chars != null && !in.hasMore())
+					throw new IllegalArgumentException("Encoded data ends in the middle of a token.");
+				String c = charTable.getSymbol(chars == null ? 0 : chars.decodeSymbol(in));
+				if (c.equals(END))
+					break;
+				sb.append(c);
+			}
+		}
+		if (in.remaining() < 0)
+			throw new IllegalArgumentException("Encoded data ends in the middle of a code.");
+		return sb.toString();
+	}
+
+	private static boolean hasSymbol(CodeTable table, String symbol) {
+		for (int id = 0; id < table.size(); id++)
+			if (table.getSymbol(id).equals(symbol))
+				return true;
+		return false;
+	}
+
+	/* A lone symbol has an empty code and needs no decoder */
+	private static TableDecoder decoder(CodeTable table) {
+		return table.size() == 1 && table.getLength(0) == 0 ? null : new TableDecoder(table);
+	}
+
+	private static Map<String, Integer> countTokens(CharSequence text) {
+		Map<String, Integer> counts = new HashTableSC<String, Integer>(1024, new PolynomialHashFunction<String>());
+		tokenize(text, token -> {
+			Integer count = counts.get(token);
+			counts.put(token, count == null ? 1 : count + 1);
+		});
+		return counts;
+	}
+
+	private static boolean isWordChar(char c) {
+		return Character.isLetterOrDigit(c);
+	}
+
+}
@@ -0,0 +1,118 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AdaptiveHuffmanTest {
+
+	private byte[] compress(String text) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		HuffmanCoding.compressAdaptive(new ChunkedReader(new StringReader(text), 100), bytes);
+		return bytes.toByteArray();
+	}
+
+	private String decompress(byte[] bytes) throws Exception {
+		StringWriter out = new StringWriter();
+		HuffmanCoding.decompressAdaptive(new ByteArrayInputStream(bytes), out);
+		return out.toString();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		Random random = new Random(16);
+		StringBuilder wide = new StringBuilder();
+		for (int i = 0; i < 20000; i++)
+			wide.append((char) random.nextInt(Character.MAX_VALUE + 1));
+		StringBuilder skewed = new StringBuilder();
+		for (int i = 0; i < 50000; i++)
+			skewed.append((char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 4))));
+
+		boolean check = true;
+		for (String text : new String[] {"", "a", "aaaaaaaa", "EEEEIIITTOS\nBAACABAD\r\n\u0000￿中",
+				wide.toString(), skewed.toString()})
+			check &= text.equals(decompress(compress(text)));
+		assertTrue("Adaptive round trip does not match the input.", check);
+	}
+
+	@Test
+	public void testCloseToStaticHuffman() throws Exception {
+		/* One pass costs a little more than two, but not much on a long text */
+		Random random = new Random(3);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100000; i++)
+			sb.append((char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 4))));
+		String text = sb.toString();
+		long staticBits = HuffmanCoding.huffman_bits(HuffmanCoding.compute_fd(text));
+		long adaptiveBits = compress(text).length * 8L;
+		assertTrue("Adaptive coding takes " + adaptiveBits + " bits against " + staticBits,
+				adaptiveBits < staticBits * 1.02);
+	}
+
+	@Test
+	public void testFlushedCharsDecodeBeforeTheEnd() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		AdaptiveHuffmanWriter writer = new AdaptiveHuffmanWriter(bytes);
+		String sent = "the quick brown fox jumps over the lazy dog, the end";
+		writer.write(sent);
+		writer.flush();
+
+		/* The reader only has the flushed bytes, without the end marker, and must not wait for more */
+		AdaptiveHuffmanReader reader = new AdaptiveHuffmanReader(new ByteArrayInputStream(bytes.toByteArray()));
+		char[] buffer = new char[100];
+		int n = reader.read(buffer, 0, buffer.length);
+		String received = new String(buffer, 0, n);
+		assertTrue("Flushed chars must decode right away: '" + received + "'",
+				sent.startsWith(received) && received.length() >= sent.length() - 2);
+		writer.close();
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncatedStream() throws Exception {
+		byte[] bytes = compress("some text that will be cut short");
+		decompress(Arrays.copyOf(bytes, bytes.length - 2));
+	}
+
+	@Test
+	public void testSiblingProperty() throws Exception {
+		Random random = new Random(5);
+		AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+		boolean check = true;
+		for (int i = 0; i < 5000 && check; i++) {
+			tree.update((char) ('a' + Math.min(30, (int) Math.abs(random.nextGaussian() * 6))));
+			for (int node = 1; node < tree.size(); node++) {
+				check &= tree.weightOf(node - 1) >= tree.weightOf(node);
+				if (!tree.isLeaf(node))
+					check &= tree.weightOf(node) == tree.weightOf(tree.child(node, false)) + tree.weightOf(tree.child(node, true));
+			}
+		}
+		assertTrue("Weights must not increase along the node order.", check && tree.weightOf(AdaptiveHuffmanTree.ROOT) == 5000);
+	}
+
+	@Test
+	public void testFlatAlphabet() throws Exception {
+		/* Thousands of leaves share every weight, the worst case for finding the first node of a weight */
+		StringBuilder sb = new StringBuilder();
+		for (int pass = 0; pass < 3; pass++)
+			for (char c = 0x4e00; c < 0x4e00 + 20000; c++)
+				sb.append(c);
+		String text = sb.toString();
+		AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+		for (int i = 0; i < text.length(); i++)
+			tree.update(text.charAt(i));
+		boolean check = true;
+		for (int node = 1; node < tree.size(); node++)
+			check &= tree.weightOf(node - 1) >= tree.weightOf(node);
+		assertTrue("Weights must not increase along the node order.", check);
+		assertEquals(text, decompress(compress(text)));
+	}
+
+}
@@ -0,0 +1,124 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchCompressorTest {
+
+	File dir;
+	String[] texts;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("batch").toFile();
+		Random random = new Random(3);
+		texts = new String[12];
+		for (int i = 0; i < texts.length; i++) {
+			StringBuilder sb = new StringBuilder();
+			for (int j = 0, n = random.nextInt(5000); j < n; j++)
+				sb.append((char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 5))));
+			if (i == 3)
+				sb.append("é中\r\n");
+			texts[i] = sb.toString();
+			write(new File(dir, "file" + i + (i % 2 == 0 ? ".txt" : ".log")), texts[i]);
+		}
+		new File(dir, "nested").mkdir();
+		write(new File(dir, "nested/deep.txt"), "deep");
+	}
+
+	private static void write(File file, String text) throws Exception {
+		file.deleteOnExit();
+		Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		File compressed = new File(dir, "out"), decompressed = new File(dir, "back");
+		boolean check = true;
+		try (BatchCompressor batch = new BatchCompressor(2, 2, 1000)) {
+			BatchCompressor.Summary summary = batch.compress(BatchCompressor.resolve(dir.getPath()), compressed);
+			check &= summary.getFiles() == texts.length && summary.getFailed() == 0 && summary.getOutputBytes() < summary.getInputBytes();
+			summary = batch.decompress(BatchCompressor.resolve(compressed.getPath()), decompressed);
+			check &= summary.getFiles() == texts.length && summary.getFailed() == 0;
+		}
+		for (int i = 0; i < texts.length; i++) {
+			File file = new File(decompressed, "file" + i + (i % 2 == 0 ? ".txt" : ".log"));
+			check &= texts[i].equals(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		}
+		assertTrue("Every file must decompress to its original text.", check);
+	}
+
+	@Test
+	public void testGlob() throws Exception {
+		File[] txt = BatchCompressor.resolve(dir.getPath() + "/*.txt");
+		File[] deep = BatchCompressor.resolve(dir.getPath() + "/**.txt");
+		boolean check = txt.length == texts.length / 2 && deep.length == texts.length / 2 + 1
+				&& BatchCompressor.resolve(dir.getPath() + "/none/*.txt").length == 0;
+		for (File file : txt)
+			check &= file.getName().endsWith(".txt") && file.getParentFile().equals(dir);
+		assertTrue("A glob must only match the files it names.", check);
+	}
+
+	@Test
+	public void testFailuresAreCounted() throws Exception {
+		File bad = new File(dir, "bad.huf");
+		write(bad, "not a container");
+		File good = new File(dir, "good");
+		try (BatchCompressor batch = new BatchCompressor(1, 1)) {
+			batch.compress(new File[] { new File(dir, "file0.txt") }, good);
+			File[] inputs = { bad, new File(good, "file0.txt.huf") };
+			BatchCompressor.Summary summary = batch.decompress(inputs, new File(dir, "back"));
+			boolean check = summary.getFiles() == 2 && summary.getFailed() == 1 && summary.getFailures().get(0).startsWith(bad.getPath())
+					&& texts[0].equals(new String(Files.readAllBytes(new File(dir, "back/good/file0.txt").toPath()), StandardCharsets.UTF_8));
+			assertTrue("A failed file must be reported without stopping the others.", check);
+		}
+	}
+
+	@Test
+	public void testSameNamesInDifferentDirectories() throws Exception {
+		write(new File(dir, "nested/file0.txt"), "nested text");
+		File compressed = new File(dir, "out"), decompressed = new File(dir, "back");
+		boolean check = true;
+		try (BatchCompressor batch = new BatchCompressor(2, 2)) {
+			File[] inputs = BatchCompressor.resolve(dir.getPath() + "/**file0.txt");
+			check &= inputs.length == 2 && batch.compress(inputs, compressed).getFailed() == 0;
+			check &= batch.decompress(BatchCompressor.resolve(compressed.getPath() + "/**.huf"), decompressed).getFailed() == 0;
+		}
+		check &= texts[0].equals(new String(Files.readAllBytes(new File(decompressed, "file0.txt").toPath()), StandardCharsets.UTF_8))
+				&& "nested text".equals(new String(Files.readAllBytes(new File(decompressed, "nested/file0.txt").toPath()), StandardCharsets.UTF_8));
+		assertTrue("Files with the same name in different directories must keep their own outputs.", check);
+	}
+
+	@Test
+	public void testDuplicateInputsRejected() throws Exception {
+		boolean check = false;
+		try (BatchCompressor batch = new BatchCompressor(1, 1)) {
+			File file = new File(dir, "file0.txt");
+			batch.compress(new File[] { file, file }, new File(dir, "out"));
+		} catch (IOException e) {
+			check = true;
+		}
+		assertTrue("Two inputs written to the same output must be rejected.", check);
+	}
+
+	@Test
+	public void testNotUtf8Fails() throws Exception {
+		File binary = new File(dir, "binary.bin");
+		binary.deleteOnExit();
+		Files.write(binary.toPath(), new byte[] { 'a', (byte) 0xFF, (byte) 0xFE, 'b' });
+		try (BatchCompressor batch = new BatchCompressor(1, 1)) {
+			BatchCompressor.Summary summary = batch.compress(new File[] { binary, new File(dir, "file0.txt") }, new File(dir, "out"));
+			boolean check = summary.getFailed() == 1 && summary.getFailures().get(0).startsWith(binary.getPath());
+			assertTrue("A file that is not UTF-8 must fail instead of being corrupted.", check);
+		}
+	}
+
+}
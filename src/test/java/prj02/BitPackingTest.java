@@ -0,0 +1,73 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+import Tree.*;
+
+public class BitPackingTest {
+
+	String input;
+	Map<String, Integer> fD;
+	BTNode<Integer,String> huffmanRoot;
+	Map<String,String> encodedHuffman;
+	String output;
+	PackedBits packed;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "AAAAAAABBBBBBBCCCCCCCDDDDDDDDDEEEEEEFFFFFFGGGGGGGTTTTTTTSSSSSCCCCCCCAAGGGSGSGDGDGGDGEEEMOKOKKKKKKOKOOKOKJJUYGTTFRRDDESWAWVHNJKMLKKJGDRDFJVVCCCCCCCCCCCCCPPPPOOOIIT";
+
+		fD = HuffmanCoding.compute_fd(input);
+		huffmanRoot = HuffmanCoding.huffman_tree(fD);
+		encodedHuffman = HuffmanCoding.huffman_code(huffmanRoot);
+		output = HuffmanCoding.encode(encodedHuffman, input);
+		packed = HuffmanCoding.encodePacked(encodedHuffman, input);
+	}
+
+	@Test
+	public void testPackedMatchesEncodedString() {
+		boolean check = packed.bitLength() == output.length()
+				&& packed.toBitString().equals(output)
+				&& PackedBits.fromBitString(output).toBitString().equals(output);
+
+		assertTrue("Packed bits differ from the encoded string", check);
+	}
+
+	@Test
+	public void testPackedBytes() {
+		boolean check = packed.byteLength() == (output.length() + 7) / 8
+				&& packed.getBytes().length == packed.byteLength();
+
+		assertTrue("Failed to calculate the packed size", check);
+	}
+
+	@Test
+	public void testWriterReaderRoundTrip() {
+		Random random = new Random(4020);
+		long[] values = new long[1000];
+		int[] lengths = new int[1000];
+		BitWriter writer = new BitWriter(1);
+		for (int i = 0; i < values.length; i++) {
+			lengths[i] = random.nextInt(65);
+			values[i] = lengths[i] == 64 ? random.nextLong() : random.nextLong() & ((1L << lengths[i]) - 1);
+			writer.write(values[i], lengths[i]);
+		}
+
+		BitReader reader = writer.toPackedBits().reader();
+		boolean check = true;
+		for (int i = 0; i < values.length; i++) {
+			if (reader.read(lengths[i]) != values[i])
+				check = false;
+		}
+		check = check && !reader.hasMore();
+
+		assertTrue("Bits read differ from the bits written", check);
+	}
+
+}
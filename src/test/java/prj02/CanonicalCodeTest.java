@@ -0,0 +1,113 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+import Tree.*;
+
+public class CanonicalCodeTest {
+
+	String input;
+	Map<String, Integer> fD;
+	BTNode<Integer,String> huffmanRoot;
+	Map<String,String> encodedHuffman;
+	Map<String,String> canonicalHuffman;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "AAAAAAABBBBBBBCCCCCCCDDDDDDDDDEEEEEEFFFFFFGGGGGGGTTTTTTTSSSSSCCCCCCCAAGGGSGSGDGDGGDGEEEMOKOKKKKKKOKOOKOKJJUYGTTFRRDDESWAWVHNJKMLKKJGDRDFJVVCCCCCCCCCCCCCPPPPOOOIIT";
+
+		fD = HuffmanCoding.compute_fd(input);
+		huffmanRoot = HuffmanCoding.huffman_tree(fD);
+		encodedHuffman = HuffmanCoding.huffman_code(huffmanRoot);
+		canonicalHuffman = HuffmanCoding.huffman_canonical_code(huffmanRoot);
+	}
+
+	@Test
+	public void testSameLengths() {
+		boolean check = canonicalHuffman.size() == encodedHuffman.size();
+		for (String symbol : encodedHuffman.getKeys()) {
+			if (canonicalHuffman.get(symbol).length() != encodedHuffman.get(symbol).length())
+				check = false;
+		}
+		check = check && HuffmanCoding.encode(canonicalHuffman, input).length() == HuffmanCoding.encode(encodedHuffman, input).length();
+
+		assertTrue("Canonical codes must keep the tree's code lengths", check);
+	}
+
+	@Test
+	public void testHeaderRoundTrip() {
+		BitWriter writer = new BitWriter();
+		CanonicalCode.fromTree(huffmanRoot).writeHeader(writer);
+		PackedBits header = writer.toPackedBits();
+		Map<String,String> rebuilt = CanonicalCode.readHeader(header.reader()).toCodeMap();
+
+		boolean check = rebuilt.size() == canonicalHuffman.size();
+		for (String symbol : canonicalHuffman.getKeys()) {
+			if (!canonicalHuffman.get(symbol).equals(rebuilt.get(symbol)))
+				check = false;
+		}
+		/* 23 symbols, a handful of bits each */
+		check = check && header.byteLength() < 40;
+
+		assertTrue("Failed to rebuild the codes from the header", check);
+	}
+
+	@Test
+	public void testDecodeCanonical() {
+		String output = HuffmanCoding.encode(canonicalHuffman, input);
+
+		boolean check = HuffmanCoding.decodeHuff(output, canonicalHuffman).equals(input);
+
+		assertTrue("Failed to decode canonical codes", check);
+	}
+
+	@Test
+	public void testTruncatedHeader() {
+		BitWriter out = new BitWriter();
+		CanonicalCode.fromTree(huffmanRoot).writeHeader(out);
+		PackedBits header = out.toPackedBits();
+		boolean check = true;
+		for (long bits = 0; bits < header.bitLength(); bits++) {
+			try {
+				CanonicalCode.readHeader(new BitReader(header.getBytes(), bits));
+				check = false;
+			} catch (IllegalArgumentException e) {
+			}
+		}
+		assertTrue("A truncated header must be rejected, not read past its end", check);
+	}
+
+	@Test
+	public void testCorruptHeader() {
+		boolean check = true;
+		/* All zeros never end a gamma number, all ones declare a huge symbol count or symbol length */
+		for (byte fill : new byte[] { 0, (byte) 0xFF }) {
+			byte[] bytes = new byte[64];
+			Arrays.fill(bytes, fill);
+			try {
+				CanonicalCode.readHeader(new BitReader(bytes, bytes.length * 8L));
+				check = false;
+			} catch (IllegalArgumentException e) {
+			}
+		}
+		/* A multi char header whose only symbol claims a length of 2^40 chars */
+		BitWriter out = new BitWriter();
+		out.write(0b010, 3); // Gamma of 2: one symbol
+		out.writeBit(false);
+		out.write(0, 40);
+		out.write(1, 41); // Gamma of 2^40 + ...
+		try {
+			CanonicalCode.readHeader(out.toPackedBits().reader());
+			check = false;
+		} catch (IllegalArgumentException e) {
+		}
+		assertTrue("A corrupt header must be rejected", check);
+	}
+
+}
@@ -0,0 +1,81 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CodePointCodeTest {
+
+	String emoji = "😀"; // U+1F600
+	String text = "héllo 世界 " + emoji + emoji + emoji + " 𠀋" + emoji + " ok";
+
+	@Test
+	public void testSupplementaryCharactersAreOneSymbol() throws Exception {
+		CodePointCode code = CodePointCode.fromText(text);
+		boolean check = code.idOf(0x1F600) >= 0 && code.idOf(0x2000B) >= 0
+				&& code.idOf(0xD83D) < 0 && code.idOf(0xDE00) < 0
+				&& code.size() == 10; // h é l o space 世 界 emoji 𠀋 k
+		assertTrue("Surrogate pairs must be counted as one code point.", check);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		Random random = new Random(17);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			int r = random.nextInt(10);
+			if (r < 5)
+				sb.append((char) ('a' + random.nextInt(5)));
+			else if (r < 8)
+				sb.appendCodePoint(0x1F600 + random.nextInt(40));
+			else
+				sb.appendCodePoint(random.nextInt(Character.MAX_CODE_POINT + 1));
+		}
+		boolean check = true;
+		for (String s : new String[] {text, emoji, emoji + emoji + emoji, "\uD800 lone surrogate", sb.toString()})
+			check &= s.equals(HuffmanCoding.decodeCodePoints(HuffmanCoding.encodeCodePoints(s)));
+		assertTrue("Code point round trip does not match the input.", check);
+	}
+
+	@Test
+	public void testSameLengthsAsHuffmanTree() throws Exception {
+		/* Over single chars the code lengths cost as many bits as the Huffman tree of compute_fd() */
+		String input = "EEEEIIITTOS\nBAACABAD\r\nABBCCCDDDDEEEEEFFFFFFGGGGGGGHHHHHHHH";
+		CodePointCode code = CodePointCode.fromText(input);
+		long bits = 0;
+		for (int i = 0; i < input.length(); i++)
+			bits += code.getLength(code.idOf(input.charAt(i)));
+		assertTrue("Code point codes must be optimal.", bits == HuffmanCoding.huffman_bits(HuffmanCoding.compute_fd(input)));
+	}
+
+	@Test
+	public void testFewerBitsThanSurrogateHalves() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		Random random = new Random(2);
+		for (int i = 0; i < 5000; i++)
+			sb.appendCodePoint(0x1F600 + random.nextInt(30));
+		String input = sb.toString();
+		long codePointBits = 0;
+		CodePointCode code = CodePointCode.fromText(input);
+		for (int i = 0; i < input.length(); i += 2)
+			codePointBits += code.getLength(code.idOf(input.codePointAt(i)));
+		assertTrue("Whole code points must take fewer bits than their halves.",
+				codePointBits < HuffmanCoding.huffman_bits(HuffmanCoding.compute_fd(input)));
+	}
+
+	@Test
+	public void testHuffmanLengths() throws Exception {
+		boolean check = CodePointCode.huffmanLengths(new long[] {9})[0] == 0;
+		int[] lengths = CodePointCode.huffmanLengths(new long[] {1, 1, 2, 4, 8});
+		check &= lengths[0] == 4 && lengths[1] == 4 && lengths[2] == 3 && lengths[3] == 2 && lengths[4] == 1;
+		assertTrue("Lengths do not match the Huffman tree.", check);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingCodePoint() throws Exception {
+		CodePointCode.fromText("abc").encode(emoji, new BitWriter());
+	}
+
+}
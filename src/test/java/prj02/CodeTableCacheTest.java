@@ -0,0 +1,83 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+
+public class CodeTableCacheTest {
+
+	String input;
+	Map<String, Integer> fD;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "EEEEIIITTOS\nBAACABAD\r\nABBCCCDDDDEEEEEFFFFFFGGGGGGGHHHHHHHHIIIIIIIIIJJJJJJJJJJ";
+		fD = HuffmanCoding.compute_fd(input);
+	}
+
+	/* The same distribution with every frequency scaled, plus a little noise */
+	private Map<String, Integer> scaled(Map<String, Integer> fD, int factor, int noise) {
+		Map<String, Integer> result = new HashTableSC<String, Integer>(2 * fD.size(), new SimpleHashFunction<String>());
+		int i = 0;
+		for (String symbol : fD.getKeys())
+			result.put(symbol, fD.get(symbol) * factor + (i++ % 2 == 0 ? noise : -noise));
+		return result;
+	}
+
+	@Test
+	public void testNearDuplicatesHit() throws Exception {
+		CodeTableCache cache = new CodeTableCache(4, 0.01);
+		CodeTableCache.Entry first = cache.get(fD);
+		CodeTableCache.Entry second = cache.get(scaled(fD, 100, 3));
+		boolean check = first == second && cache.getHits() == 1 && cache.getMisses() == 1 && cache.size() == 1;
+		assertTrue("A near duplicate distribution must reuse the table.", check);
+	}
+
+	@Test
+	public void testCachedCodesRoundTrip() throws Exception {
+		CodeTableCache cache = new CodeTableCache();
+		HuffmanCoding.huffman_code(fD, cache);
+		Map<String, String> codes = HuffmanCoding.huffman_code(scaled(fD, 10, 1), cache);
+		boolean check = cache.getHits() == 1
+				&& input.equals(HuffmanCoding.decodePacked(HuffmanCoding.encodePacked(codes, input), codes))
+				&& HuffmanCoding.encodePacked(codes, input).bitLength() == HuffmanCoding.huffman_bits(fD);
+		assertTrue("Cached codes must encode and decode like fresh ones.", check);
+	}
+
+	@Test
+	public void testDifferentDistributionsMiss() throws Exception {
+		CodeTableCache cache = new CodeTableCache(4, 0.01);
+		cache.get(fD);
+		cache.get(HuffmanCoding.compute_fd(input + "Z")); // A new symbol
+		cache.get(HuffmanCoding.compute_fd("aaaaaaaaaaaaaaaabbbbbbbbcccc")); // Other statistics
+		assertTrue("Different distributions must build their own table.", cache.getMisses() == 3 && cache.getHits() == 0);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() throws Exception {
+		CodeTableCache cache = new CodeTableCache(2, 0.01);
+		Map<String, Integer> a = HuffmanCoding.compute_fd("aaab");
+		Map<String, Integer> b = HuffmanCoding.compute_fd("ccccccccd");
+		Map<String, Integer> c = HuffmanCoding.compute_fd("eeeeeeeeeeeeeeeeefg");
+		cache.get(a);
+		cache.get(b);
+		cache.get(a); // b is now the least recently used
+		cache.get(c);
+		long missesBefore = cache.getMisses();
+		cache.get(a);
+		boolean aKept = cache.getMisses() == missesBefore;
+		cache.get(b);
+		assertTrue("The least recently used table must be evicted.",
+				aKept && cache.getMisses() == missesBefore + 1 && cache.getEvictions() == 2 && cache.size() == 2);
+	}
+
+	@Test
+	public void testFingerprintIgnoresScale() throws Exception {
+		assertTrue("Scaled distributions must share a fingerprint.",
+				CodeTableCache.fingerprint(fD).equals(CodeTableCache.fingerprint(scaled(fD, 7, 0))));
+	}
+
+}
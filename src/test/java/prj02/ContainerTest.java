@@ -0,0 +1,102 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContainerTest {
+
+	String input;
+
+	@Before
+	public void setUp() throws Exception {
+		/* The statistics change from one part to the next, so blocks get different tables */
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 500; i++)
+			sb.append("aaaaaaab");
+		for (int i = 0; i < 300; i++)
+			sb.append("xyz\n");
+		sb.append("EEEEIIITTOS\nBAACABAD\r\nABBCCCDDDDEEEEEFFFFFFé中");
+		input = sb.toString();
+	}
+
+	private byte[] compress(String text, int blockSize) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		HuffmanCoding.compress(new ChunkedReader(new StringReader(text), 100), bytes, blockSize);
+		return bytes.toByteArray();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		boolean check = true;
+		for (int blockSize : new int[] {1, 7, 1000, input.length(), 1 << 20}) {
+			StringWriter out = new StringWriter();
+			HuffmanCoding.decompress(new ByteArrayInputStream(compress(input, blockSize)), out);
+			if (!input.equals(out.toString()))
+				check = false;
+		}
+		assertTrue("Decompressed text does not match the input.", check);
+	}
+
+	@Test
+	public void testEmptyInput() throws Exception {
+		byte[] container = compress("", 64);
+		ContainerReader reader = new ContainerReader(new ByteArrayInputStream(container));
+		assertTrue("An empty input must have no blocks.", container.length == 10 && reader.nextBlock() == null);
+	}
+
+	@Test
+	public void testSingleSymbolBlocks() throws Exception {
+		ContainerReader reader = new ContainerReader(new ByteArrayInputStream(compress("zzzzzzzzzzzzz", 5)));
+		assertTrue("Single symbol blocks must keep their length.", "zzzzzzzzzzzzz".equals(reader.readAll()));
+	}
+
+	@Test
+	public void testBlocksAreIndependent() throws Exception {
+		int blockSize = 1000;
+		ContainerReader reader = new ContainerReader(new ByteArrayInputStream(compress(input, blockSize)));
+		boolean check = reader.skipBlock() == blockSize && reader.skipBlock() == blockSize;
+
+		/* The third block decodes on its own, after skipping the first two */
+		HuffmanContainer.Block third = reader.nextRawBlock();
+		check &= input.substring(2 * blockSize, 3 * blockSize).equals(HuffmanContainer.decodeBlock(third));
+		check &= input.substring(3 * blockSize).equals(reader.readAll());
+		check &= reader.nextBlock() == null && reader.skipBlock() == 0;
+		assertTrue("Blocks must be decodable and skippable on their own.", check);
+	}
+
+	@Test
+	public void testBlocksAdaptToLocalStatistics() throws Exception {
+		/* One table for everything pays for symbols that only appear in another part */
+		int whole = compress(input, input.length()).length;
+		int blocks = compress(input, 4000).length;
+		assertTrue("Per block tables must compress better here: " + blocks + " vs " + whole, blocks < whole);
+	}
+
+	@Test(expected = IOException.class)
+	public void testRejectsOtherFormats() throws Exception {
+		new ContainerReader(new ByteArrayInputStream("not a container".getBytes()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsBadBlockSize() throws Exception {
+		new ContainerWriter(new ByteArrayOutputStream(), 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void testRejectsZeroPayload() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ContainerWriter writer = new ContainerWriter(bytes, 1000)) {
+			writer.writeBlock(new HuffmanContainer.Block(500, new byte[100]));
+		}
+		new ContainerReader(new ByteArrayInputStream(bytes.toByteArray())).nextBlock();
+	}
+
+}
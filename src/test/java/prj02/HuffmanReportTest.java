@@ -0,0 +1,86 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+
+public class HuffmanReportTest {
+
+	String input;
+	Map<String, Integer> fD;
+	Map<String, String> encodedHuffman;
+	PackedBits packed;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "ABBCCCDDDDEEEEEFFFFFFGGGGGGGHHHHHHHHIIIIIIIIIJJJJJJJJJJé中";
+		fD = HuffmanCoding.compute_fd(input);
+		encodedHuffman = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(fD));
+		packed = HuffmanCoding.encodePacked(encodedHuffman, input);
+	}
+
+	@Test
+	public void testSizes() throws Exception {
+		HuffmanReport report = new HuffmanReport(fD, encodedHuffman, 3);
+		boolean check = report.getInputBytes() == input.getBytes("UTF-8").length && report.getEncodedBits() == packed.bitLength()
+				&& report.getEncodedBytes() == packed.byteLength() && report.getCount() == input.length()
+				&& report.getSymbols() == fD.size();
+		assertTrue("Sizes must match the real input and encoded bits.", check);
+	}
+
+	@Test
+	public void testEntropy() throws Exception {
+		Map<String, Integer> uniform = new HashTableSC<String, Integer>(new SimpleHashFunction<String>());
+		Map<String, String> codes = new HashTableSC<String, String>(new SimpleHashFunction<String>());
+		String[] symbols = { "a", "b", "c", "d" };
+		for (int i = 0; i < symbols.length; i++) {
+			uniform.put(symbols[i], 5);
+			codes.put(symbols[i], CodeTable.codeString(i, 2));
+		}
+		HuffmanReport report = new HuffmanReport(uniform, codes, 0);
+		HuffmanReport skewed = new HuffmanReport(fD, encodedHuffman, 0);
+		boolean check = Math.abs(report.getEntropy() - 2) < 1e-9 && Math.abs(report.averageLength() - 2) < 1e-9
+				&& skewed.getEntropy() <= skewed.averageLength() && skewed.averageLength() < skewed.getEntropy() + 1
+				&& report.getTop().length == 0;
+		assertTrue("Entropy must bound the average code length.", check);
+	}
+
+	@Test
+	public void testTopK() throws Exception {
+		HuffmanReport.Entry[] top = new HuffmanReport(fD, encodedHuffman, 3).getTop();
+		boolean check = top.length == 3 && top[0].getSymbol().equals("J") && top[1].getSymbol().equals("I")
+				&& top[2].getSymbol().equals("H") && top[0].getFrequency() == 10 && top[0].getCode().equals(encodedHuffman.get("J"));
+		check &= new HuffmanReport(fD, encodedHuffman, 100).getTop().length == fD.size();
+		assertTrue("Top K must hold the most frequent symbols, most frequent first.", check);
+	}
+
+	@Test
+	public void testVerify() throws Exception {
+		boolean check = HuffmanReport.verify(input, packed, encodedHuffman, input.length());
+		check &= !HuffmanReport.verify(input.replace('A', 'B'), packed, encodedHuffman, input.length());
+		check &= HuffmanReport.checksum(input) == HuffmanReport.decodedChecksum(packed, encodedHuffman, input.length());
+
+		/* A lone symbol has an empty code */
+		Map<String, Integer> lone = HuffmanCoding.compute_fd("zzzz");
+		Map<String, String> loneCodes = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(lone));
+		check &= HuffmanReport.verify("zzzz", HuffmanCoding.encodePacked(loneCodes, "zzzz"), loneCodes, 4);
+		assertTrue("The checksum of the decoded bits must match the input.", check);
+	}
+
+	@Test
+	public void testVerifyChecksBitLength() throws Exception {
+		BitWriter longer = new BitWriter();
+		BitReader in = packed.reader();
+		for (long i = 0; i < packed.bitLength(); i++)
+			longer.writeBit(in.readBit());
+		longer.write(0, 3);
+		PackedBits shorter = new PackedBits(packed.getBytes(), packed.bitLength() - 1);
+		boolean check = !HuffmanReport.verify(input, longer.toPackedBits(), encodedHuffman, input.length())
+				&& !HuffmanReport.verify(input, shorter, encodedHuffman, input.length());
+		assertTrue("Bits left over or missing must fail the round trip.", check);
+	}
+
+}
@@ -0,0 +1,86 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import HashTable.*;
+import SortedList.*;
+import Tree.*;
+
+public class HuffmanTreeBuilderTest {
+
+	/* The sorted linked list algorithm huffman_tree used before, where every node holds the concatenation of its leaves */
+	private static BTNode<Integer, String> sortedListTree(Map<String, Integer> fD) {
+		SortedList<BTNode<Integer, String>> sortedList = new SortedLinkedList<BTNode<Integer, String>>();
+		for (String s : fD.getKeys())
+			sortedList.add(new BTNode<Integer, String>(fD.get(s), s));
+		while (sortedList.size() > 1) {
+			BTNode<Integer, String> first = sortedList.removeIndex(0);
+			BTNode<Integer, String> second = sortedList.removeIndex(0);
+			BTNode<Integer, String> left = first.compareTo(second) < 0 ? first : second;
+			BTNode<Integer, String> right = left == first ? second : first;
+			BTNode<Integer, String> parent = new BTNode<Integer, String>(first.getKey() + second.getKey(), left.getValue() + right.getValue());
+			parent.setLeftChild(left);
+			parent.setRightChild(right);
+			sortedList.add(parent);
+		}
+		return sortedList.get(0);
+	}
+
+	/* Same shape, same frequencies and same symbols in the leaves */
+	private static boolean sameTree(BTNode<Integer, String> a, BTNode<Integer, String> b) {
+		if (!a.getKey().equals(b.getKey()))
+			return false;
+		boolean aLeaf = a.getLeftChild() == null;
+		boolean bLeaf = b.getLeftChild() == null;
+		if (aLeaf || bLeaf)
+			return aLeaf && bLeaf && a.getValue().equals(b.getValue());
+		return sameTree(a.getLeftChild(), b.getLeftChild()) && sameTree(a.getRightChild(), b.getRightChild());
+	}
+
+	@Test
+	public void testSameTreeWithTies() {
+		Random random = new Random(4020);
+		boolean check = true;
+		for (int run = 0; run < 50; run++) {
+			Map<String, Integer> fD = new HashTableSC<String, Integer>(new SimpleHashFunction<String>());
+			int symbols = 2 + random.nextInt(60);
+			for (int i = 0; i < symbols; i++) {
+				/* Few frequencies and symbols that are prefixes of each other, so ties need the whole concatenation.
+				 * Every symbol ends in 'c' and has no other 'c', so two different groups of symbols never concatenate
+				 * to the same string (that exact tie depended on the insertion order of the sorted list) */
+				StringBuilder symbol = new StringBuilder();
+				for (int j = random.nextInt(5); j > 0; j--)
+					symbol.append((char) ('a' + random.nextInt(2)));
+				fD.put(symbol.append('c').toString(), 1 + random.nextInt(4));
+			}
+			if (!sameTree(sortedListTree(fD), HuffmanCoding.huffman_tree(fD)))
+				check = false;
+		}
+
+		assertTrue("Heap builder must build the same tree as the sorted list", check);
+	}
+
+	@Test
+	public void testLargeAlphabet() {
+		Map<String, Integer> fD = new HashTableSC<String, Integer>(200_000, new PolynomialHashFunction<String>());
+		Random random = new Random(4035);
+		for (int i = 0; i < 100_000; i++)
+			fD.put("word" + i, 1 + random.nextInt(1000));
+
+		BTNode<Integer, String> root = HuffmanCoding.huffman_tree(fD);
+		Map<String, String> codes = HuffmanCoding.huffman_code(root);
+
+		/* A complete prefix code: the code lengths fill the Kraft sum exactly */
+		double kraft = 0;
+		for (String code : codes.getValues())
+			kraft += Math.pow(2, -code.length());
+		boolean check = codes.size() == 100_000 && Math.abs(kraft - 1) < 1e-9;
+
+		assertTrue("Failed to build the tree of a large alphabet", check);
+	}
+
+}
@@ -0,0 +1,93 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexedContainerTest {
+
+	String input;
+
+	@Before
+	public void setUp() throws Exception {
+		Random random = new Random(13);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++)
+			sb.append((char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 6))));
+		sb.append("qqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqqq");
+		input = sb.toString();
+	}
+
+	private File compress(String text, int blockSize, int granularity) throws IOException {
+		File file = File.createTempFile("indexed", ".huf");
+		file.deleteOnExit();
+		HuffmanCoding.compress(new ChunkedReader(new StringReader(text)), new FileOutputStream(file), blockSize, granularity);
+		return file;
+	}
+
+	@Test
+	public void testRandomRanges() throws Exception {
+		Random random = new Random(7);
+		boolean check = true;
+		try (IndexedContainer container = IndexedContainer.open(compress(input, 3000, 64).getPath())) {
+			check &= container.length() == input.length();
+			for (int i = 0; i < 500 && check; i++) {
+				int offset = random.nextInt(input.length());
+				int length = random.nextInt(Math.min(8000, input.length() - offset) + 1);
+				check &= input.substring(offset, offset + length).equals(container.decodeRange(offset, length));
+			}
+		}
+		assertTrue("Decoded ranges do not match the input.", check);
+	}
+
+	@Test
+	public void testEdges() throws Exception {
+		try (IndexedContainer container = IndexedContainer.open(compress(input, 1000, 10).getPath())) {
+			int n = input.length();
+			boolean check = container.decodeRange(0, 0).isEmpty()
+					&& input.equals(container.decodeRange(0, n))
+					&& input.substring(n - 1).equals(container.decodeRange(n - 1, 1))
+					&& input.substring(999, 1001).equals(container.decodeRange(999, 2))
+					/* The last block only holds one symbol */
+					&& input.substring(n - 40, n - 30).equals(container.decodeRange(n - 40, 10));
+			assertTrue("Ranges at block and index point edges do not match the input.", check);
+		}
+	}
+
+	@Test
+	public void testIndexedContainerStillReadsSequentially() throws Exception {
+		File file = compress(input, 5000, 100);
+		try (ContainerReader reader = new ContainerReader(new FileInputStream(file))) {
+			assertTrue("Sequential reading must ignore the index.", input.equals(reader.readAll()));
+		}
+	}
+
+	@Test
+	public void testIndexIsSmall() throws Exception {
+		File indexed = compress(input, 5000, 1024);
+		File plain = compress(input, 5000, 0);
+		long overhead = indexed.length() - plain.length();
+		assertTrue("Index takes " + overhead + " bytes.", overhead < 5 * 40 + 20 * 8 + 20);
+	}
+
+	@Test(expected = IOException.class)
+	public void testRejectsContainerWithoutIndex() throws Exception {
+		IndexedContainer.open(compress(input, 5000, 0).getPath());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testRejectsRangeOutsideText() throws Exception {
+		try (IndexedContainer container = IndexedContainer.open(compress("abc", 5000, 1).getPath())) {
+			container.decodeRange(2, 2);
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+
+public class LengthLimitedCodeTest {
+
+	String input;
+	Map<String, Integer> fD;
+
+	@Before
+	public void setUp() throws Exception {
+		/* Fibonacci frequencies give a Huffman tree 23 levels deep */
+		StringBuilder sb = new StringBuilder();
+		int a = 1, b = 1;
+		for (char c = 'A'; c < 'A' + 24; c++) {
+			for (int i = 0; i < a; i++)
+				sb.append(c);
+			int next = a + b;
+			a = b;
+			b = next;
+		}
+		input = sb.toString();
+		fD = HuffmanCoding.compute_fd(input);
+	}
+
+	@Test
+	public void testLimitRespected() {
+		boolean check = true;
+		for (int limit = 5; limit <= 15; limit++) {
+			Map<String, String> limited = HuffmanCoding.huffman_limited_code(fD, limit);
+			double kraft = 0;
+			for (String code : limited.getValues()) {
+				if (code.length() > limit)
+					check = false;
+				kraft += Math.pow(2, -code.length());
+			}
+			/* A complete prefix code that round trips */
+			String output = HuffmanCoding.encode(limited, input);
+			check = check && Math.abs(kraft - 1) < 1e-12 && HuffmanCoding.decodeHuff(output, limited).equals(input);
+		}
+
+		assertTrue("Failed to limit code lengths", check);
+	}
+
+	@Test
+	public void testOptimal() {
+		long huffmanBits = HuffmanCoding.huffman_bits(fD);
+		long previous = Long.MAX_VALUE;
+		boolean check = true;
+		for (int limit = 5; limit <= 30; limit++) {
+			long bits = HuffmanCoding.encode(HuffmanCoding.huffman_limited_code(fD, limit), input).length();
+			/* Looser limits never cost more, and no limit beats Huffman coding */
+			if (bits > previous || bits < huffmanBits)
+				check = false;
+			previous = bits;
+		}
+		/* Once the limit reaches the tree's depth it is plain Huffman coding */
+		check = check && previous == huffmanBits;
+
+		assertTrue("Length limited codes are not optimal", check);
+	}
+
+	@Test
+	public void testSmallAlphabets() {
+		boolean check = LengthLimitedCode.lengths(new long[] {7}, 1)[0] == 0;
+		int[] two = LengthLimitedCode.lengths(new long[] {1, 100}, 1);
+		check = check && two[0] == 1 && two[1] == 1;
+		int[] four = LengthLimitedCode.lengths(new long[] {1, 1, 1, 100}, 2);
+		check = check && four[0] == 2 && four[1] == 2 && four[2] == 2 && four[3] == 2;
+
+		assertTrue("Failed to limit the code lengths of small alphabets", check);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLimitTooShort() {
+		HuffmanCoding.huffman_limited_code(fD, 4);
+	}
+
+}
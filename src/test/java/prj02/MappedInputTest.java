@@ -0,0 +1,98 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+import Tree.*;
+
+public class MappedInputTest {
+
+	String input;
+	File file;
+	Map<String, Integer> fD;
+	Map<String,String> encodedHuffman;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "AAAAAAABBBBBBBCCCCCCCDDDDDDDDDEEEEEEFFFFFFGGGGGGGTTTTTTTSSSSSCCCCCCCAAGGGSGSGDGDGGDGEEEMOKOKKKKKKOKOOKOKJJUYGTTFRRDDESWAWVHNJKMLKKJGDRDFJVVCCCCCCCCCCCCCPPPPOOOIIT";
+		file = File.createTempFile("mapped", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), input.getBytes(StandardCharsets.US_ASCII));
+
+		fD = HuffmanCoding.compute_fd(input);
+		BTNode<Integer,String> huffmanRoot = HuffmanCoding.huffman_tree(fD);
+		encodedHuffman = HuffmanCoding.huffman_code(huffmanRoot);
+	}
+
+	/* Tiny windows so the file is visited through many mappings */
+	private MappedInput open() throws Exception {
+		return new MappedInput(FileChannel.open(file.toPath(), StandardOpenOption.READ), 7);
+	}
+
+	@Test
+	public void testMappedFrequencyDistribution() throws Exception {
+		boolean check;
+		try (MappedInput mapped = open()) {
+			Map<String, Integer> mappedFD = HuffmanCoding.compute_fd(mapped);
+			check = mappedFD.size() == fD.size();
+			for (String symbol : fD.getKeys()) {
+				if (!fD.get(symbol).equals(mappedFD.get(symbol)))
+					check = false;
+			}
+		}
+
+		assertTrue("Mapped frequency distribution differs from compute_fd", check);
+	}
+
+	@Test
+	public void testMappedEncoding() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long bits;
+		try (MappedInput mapped = open()) {
+			bits = HuffmanCoding.encode(encodedHuffman, mapped, out);
+		}
+		PackedBits packed = HuffmanCoding.encodePacked(encodedHuffman, input);
+
+		boolean check = bits == packed.bitLength() && Arrays.equals(out.toByteArray(), packed.getBytes());
+
+		assertTrue("Mapped encoding differs from encodePacked", check);
+	}
+
+	@Test
+	public void testScaledFrequencies() {
+		SymbolHistogram histogram = new SymbolHistogram();
+		for (int i = 0; i < 3; i++) {
+			SymbolHistogram part = new SymbolHistogram();
+			for (int j = 0; j < 1_000_000; j++)
+				part.add('a');
+			histogram.merge(part);
+		}
+		/* Scale the counts up by merging the histogram into itself */
+		for (int i = 0; i < 11; i++)
+			histogram.merge(histogram);
+		histogram.add('b');
+		histogram.add('c');
+		histogram.add('c');
+		Map<String, Integer> scaled = histogram.toFrequencyMap();
+
+		long total = 0;
+		for (Integer frequency : scaled.getValues())
+			total += frequency;
+		boolean check = histogram.total() > Integer.MAX_VALUE && scaled.size() == 3 && total <= Integer.MAX_VALUE
+				&& scaled.get("b") == 1 && scaled.get("c") == 1 && scaled.get("a") > 1_000_000_000;
+
+		assertTrue("Failed to scale frequencies down to fit an Integer", check);
+	}
+
+}
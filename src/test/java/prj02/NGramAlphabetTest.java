@@ -0,0 +1,78 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+
+public class NGramAlphabetTest {
+
+	String input;
+
+	@Before
+	public void setUp() throws Exception {
+		String[] words = {"the", "huffman", "code", "of", "and", "that", "tree", "with", "is", "a", "symbol", "frequency",
+				"there", "then", "encoding", "decoding", "table", "in", "to", "bits"};
+		Random random = new Random(18);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			sb.append(words[Math.min(words.length - 1, (int) Math.abs(random.nextGaussian() * 6))]);
+			sb.append(random.nextInt(12) == 0 ? ".\n" : " ");
+		}
+		input = sb.toString();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		boolean check = true;
+		for (int topK : new int[] {0, 1, 16, 256}) {
+			NGramAlphabet alphabet = NGramAlphabet.train(input, 3, topK);
+			Map<String, Integer> fD = HuffmanCoding.compute_fd(input, alphabet);
+			Map<String, String> codes = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(fD));
+			PackedBits packed = HuffmanCoding.encodePacked(codes, input, alphabet);
+			check &= input.equals(HuffmanCoding.decodePacked(packed, codes)) && alphabet.size() <= topK;
+		}
+		assertTrue("N-gram round trip does not match the input.", check);
+	}
+
+	@Test
+	public void testFewerBitsAndCodesThanSingleChars() throws Exception {
+		NGramAlphabet alphabet = NGramAlphabet.train(input);
+		Map<String, Integer> fD = HuffmanCoding.compute_fd(input, alphabet);
+		long symbols = 0;
+		for (Integer frequency : fD.getValues())
+			symbols += frequency;
+		long ngramBits = HuffmanCoding.huffman_bits(fD);
+		long charBits = HuffmanCoding.huffman_bits(HuffmanCoding.compute_fd(input));
+		assertTrue("N-grams take " + ngramBits + " bits against " + charBits + ", in " + symbols + " codes",
+				ngramBits < charBits * 0.9 && symbols * 2 < input.length());
+	}
+
+	@Test
+	public void testGreedySplitPrefersLongestNGram() throws Exception {
+		NGramAlphabet alphabet = NGramAlphabet.train("thethethe the th", 3, 3);
+		Map<String, Integer> fD = alphabet.compute_fd("thethe th");
+		boolean check = fD.get("the") == 2 && fD.get("th") == 1 && fD.get(" ") == 1 && !fD.containsKey("t");
+		assertTrue("The split must take the longest n-gram at every position.", check);
+	}
+
+	@Test
+	public void testSingleCharsAreFallbacks() throws Exception {
+		/* Chars never seen in training still get a symbol of their own */
+		NGramAlphabet alphabet = NGramAlphabet.train(input, 2, 10);
+		String other = "xyz the QQ";
+		Map<String, String> codes = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(alphabet.compute_fd(other)));
+		assertTrue("Unseen chars must be encoded as single chars.",
+				other.equals(HuffmanCoding.decodePacked(HuffmanCoding.encodePacked(codes, other, alphabet), codes)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsLongNGrams() throws Exception {
+		NGramAlphabet.train(input, 4, 10);
+	}
+
+}
@@ -0,0 +1,75 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelBlockDecoderTest {
+
+	String input;
+	byte[] container;
+
+	@Before
+	public void setUp() throws Exception {
+		Random random = new Random(14);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 50000; i++)
+			sb.append((char) ('A' + Math.min(40, (int) Math.abs(random.nextGaussian() * 8))));
+		sb.append("zzzzzzzzzzzzzzzzzzzzzzzzzzzzz");
+		input = sb.toString();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		HuffmanCoding.compress(new ChunkedReader(new StringReader(input)), bytes, 1000);
+		container = bytes.toByteArray();
+	}
+
+	@Test
+	public void testDecodeInMemory() throws Exception {
+		boolean check = true;
+		for (int threads = 1; threads <= 4; threads++) {
+			try (ParallelBlockDecoder decoder = new ParallelBlockDecoder(threads, 4)) {
+				check &= input.equals(decoder.decode(new ContainerReader(new ByteArrayInputStream(container))));
+			}
+		}
+		assertTrue("Blocks decoded in parallel do not match the input.", check);
+	}
+
+	@Test
+	public void testDecodeStreaming() throws Exception {
+		boolean check = true;
+		for (int window : new int[] {1, 3, 100}) {
+			try (ParallelBlockDecoder decoder = new ParallelBlockDecoder(4, window)) {
+				StringWriter out = new StringWriter();
+				HuffmanCoding.decompress(new ByteArrayInputStream(container), out, decoder);
+				check &= input.equals(out.toString());
+			}
+		}
+		assertTrue("Blocks streamed in parallel must come out in order.", check);
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorruptBlock() throws Exception {
+		/* A block whose payload ends long before its 1000 chars do */
+		char[] chars = input.substring(0, 1000).toCharArray();
+		byte[] payload = HuffmanContainer.encodeBlock(chars, 0, chars.length).getPayload();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ContainerWriter writer = new ContainerWriter(bytes, 1000)) {
+			writer.write(input.substring(0, 3000));
+			writer.writeBlock(new HuffmanContainer.Block(1000, Arrays.copyOf(payload, payload.length / 2)));
+		}
+		byte[] corrupt = bytes.toByteArray();
+		try (ParallelBlockDecoder decoder = new ParallelBlockDecoder(2, 2)) {
+			decoder.decode(new ContainerReader(new ByteArrayInputStream(corrupt)), new StringWriter());
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+import Tree.*;
+
+public class ParallelEncoderTest {
+
+	String input;
+	Map<String,String> encodedHuffman;
+	PackedBits packed;
+
+	@Before
+	public void setUp() throws Exception {
+		/* Fibonacci frequencies, so codes go from 1 to 23 bits and chunks start at every possible bit offset */
+		StringBuilder sb = new StringBuilder();
+		int a = 1, b = 1;
+		for (char c = 'A'; c < 'A' + 24; c++) {
+			for (int i = 0; i < a; i++)
+				sb.append(c);
+			int next = a + b;
+			a = b;
+			b = next;
+		}
+		sb.append(HuffmanCoding.load_data("input2.txt").replaceAll("[^A-X]", ""));
+		input = sb.reverse().toString();
+
+		Map<String, Integer> fD = HuffmanCoding.compute_fd(input);
+		BTNode<Integer,String> huffmanRoot = HuffmanCoding.huffman_tree(fD);
+		encodedHuffman = HuffmanCoding.huffman_code(huffmanRoot);
+		packed = HuffmanCoding.encodePacked(encodedHuffman, input);
+	}
+
+	@Test
+	public void testSameBitsAsSequential() {
+		boolean check = true;
+		for (int chunkSize : new int[] {1, 3, 7, 64, 1000, input.length()}) {
+			try (ParallelEncoder encoder = new ParallelEncoder(3, chunkSize)) {
+				PackedBits parallel = HuffmanCoding.encodePacked(encodedHuffman, input, encoder);
+				if (parallel.bitLength() != packed.bitLength() || !Arrays.equals(parallel.getBytes(), packed.getBytes()))
+					check = false;
+			}
+		}
+
+		assertTrue("Parallel encoding differs from encodePacked", check);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownSymbol() {
+		try (ParallelEncoder encoder = new ParallelEncoder(2, 5)) {
+			HuffmanCoding.encodePacked(encodedHuffman, input + "?", encoder);
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+
+public class ParallelFrequencyCounterTest {
+
+	String input;
+	Map<String, Integer> fD;
+
+	@Before
+	public void setUp() throws Exception {
+		input = HuffmanCoding.load_data("stringData6.txt");
+		fD = HuffmanCoding.compute_fd(input);
+	}
+
+	private boolean sameDistribution(Map<String, Integer> other) {
+		boolean check = other.size() == fD.size();
+		for (String symbol : fD.getKeys()) {
+			if (!fD.get(symbol).equals(other.get(symbol)))
+				check = false;
+		}
+		return check;
+	}
+
+	@Test
+	public void testParallelString() {
+		boolean check;
+		/* Small chunks so the input is split in many tasks */
+		try (ParallelFrequencyCounter counter = new ParallelFrequencyCounter(3, 37)) {
+			check = sameDistribution(HuffmanCoding.compute_fd(input, counter));
+		}
+
+		assertTrue("Parallel frequency distribution differs from compute_fd", check);
+	}
+
+	@Test
+	public void testParallelMapped() throws Exception {
+		File file = File.createTempFile("parallel", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), input.getBytes(StandardCharsets.US_ASCII));
+
+		boolean check;
+		try (ParallelFrequencyCounter counter = new ParallelFrequencyCounter(4, 100);
+				MappedInput mapped = new MappedInput(FileChannel.open(file.toPath(), StandardOpenOption.READ), 1000)) {
+			check = sameDistribution(HuffmanCoding.compute_fd(mapped, counter));
+		}
+
+		assertTrue("Parallel mapped frequency distribution differs from compute_fd", check);
+	}
+
+}
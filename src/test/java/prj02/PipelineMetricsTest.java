@@ -0,0 +1,86 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class PipelineMetricsTest {
+
+	String input;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "ABBCCCDDDDEEEEEFFFFFFGGGGGGGHHHHHHHHIIIIIIIIIJJJJJJJJJJ";
+		PipelineMetrics.reset();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		PipelineMetrics.setEnabled(false);
+		PipelineMetrics.reset();
+	}
+
+	/* Counts and encodes the input as HuffmanEncodedResult does */
+	private void run() {
+		PipelineMetrics.Span span = PipelineMetrics.start(PipelineMetrics.Stage.COUNT);
+		Map<String, Integer> fD = HuffmanCoding.compute_fd(input);
+		PipelineMetrics.end(span, input.length(), 0, input.length());
+		span = PipelineMetrics.start(PipelineMetrics.Stage.PACK);
+		PackedBits packed = HuffmanCoding.encodePacked(HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(fD)), input);
+		PipelineMetrics.end(span, input.length(), packed.byteLength(), input.length());
+	}
+
+	@Test
+	public void testDisabled() throws Exception {
+		boolean check = PipelineMetrics.start(PipelineMetrics.Stage.COUNT) == null;
+		run();
+		check &= PipelineMetrics.snapshot().get(PipelineMetrics.Stage.COUNT).getCalls() == 0;
+		assertTrue("Disabled metrics must not measure anything.", check);
+	}
+
+	@Test
+	public void testSnapshot() throws Exception {
+		PipelineMetrics.setEnabled(true);
+		run();
+		run();
+		PipelineMetrics.Snapshot snapshot = PipelineMetrics.snapshot();
+		PipelineMetrics.StageMetrics count = snapshot.get(PipelineMetrics.Stage.COUNT);
+		PipelineMetrics.StageMetrics pack = snapshot.get(PipelineMetrics.Stage.PACK);
+		boolean check = count.getCalls() == 2 && count.getSymbols() == 2 * input.length() && count.getNanos() > 0
+				&& pack.getBytesOut() == 2 * 22 && snapshot.get(PipelineMetrics.Stage.DECODE).getCalls() == 0
+				&& snapshot.totalNanos() == count.getNanos() + pack.getNanos() && pack.getAllocatedBytes() != 0;
+		PipelineMetrics.reset();
+		check &= PipelineMetrics.snapshot().get(PipelineMetrics.Stage.COUNT).getCalls() == 0;
+		assertTrue("The snapshot must add up every run of every stage.", check);
+	}
+
+	@Test
+	public void testJfrEvents() throws Exception {
+		File file = File.createTempFile("metrics", ".jfr");
+		file.deleteOnExit();
+		try (Recording recording = new Recording()) {
+			recording.enable("prj02.HuffmanStage");
+			recording.start();
+			run();
+			recording.stop();
+			recording.dump(file.toPath());
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+		boolean check = events.size() == 2 && PipelineMetrics.snapshot().get(PipelineMetrics.Stage.COUNT).getCalls() == 0;
+		for (RecordedEvent event : events)
+			check &= event.getLong("symbols") == input.length();
+		check &= events.get(0).getString("stage").equals("COUNT") && events.get(1).getLong("bytesOut") == 22;
+		assertTrue("A recording must get an event per stage, even with the metrics disabled.", check);
+	}
+
+}
@@ -0,0 +1,74 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+
+public class SpeculativeDecoderTest {
+
+	String input;
+	Map<String, String> encodedHuffman;
+	PackedBits packed;
+
+	@Before
+	public void setUp() throws Exception {
+		Random random = new Random(15);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100000; i++)
+			sb.append((char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 5))));
+		input = sb.toString();
+		encodedHuffman = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(input)));
+		packed = HuffmanCoding.encodePacked(encodedHuffman, input);
+	}
+
+	@Test
+	public void testMatchesSequentialDecode() throws Exception {
+		boolean check = true;
+		for (int segmentBits : new int[] {64, 1000, 4096, 1 << 20}) {
+			try (SpeculativeDecoder decoder = new SpeculativeDecoder(4, segmentBits, Math.min(segmentBits, 256))) {
+				check &= input.equals(HuffmanCoding.decodePacked(packed, encodedHuffman, decoder));
+			}
+		}
+		assertTrue("Speculative decode does not match the input.", check);
+	}
+
+	@Test
+	public void testSegmentsSynchronize() throws Exception {
+		try (SpeculativeDecoder decoder = new SpeculativeDecoder(2, 4096, 1024)) {
+			HuffmanCoding.decodePacked(packed, encodedHuffman, decoder);
+			assertTrue("Most segments must synchronize: " + decoder.getFallbacks() + " of " + decoder.getSegments(),
+					decoder.getFallbacks() * 10 < decoder.getSegments());
+		}
+	}
+
+	@Test
+	public void testFallsBackWithoutSync() throws Exception {
+		/* A one bit window only synchronizes where a code happens to start at the segment's first bit */
+		try (SpeculativeDecoder decoder = new SpeculativeDecoder(2, 100, 1)) {
+			boolean check = input.equals(HuffmanCoding.decodePacked(packed, encodedHuffman, decoder));
+			assertTrue("Segments that do not synchronize must be decoded again.", check && decoder.getFallbacks() > 0);
+		}
+	}
+
+	@Test
+	public void testLegacyBitString() throws Exception {
+		String output = HuffmanCoding.encode(encodedHuffman, input.substring(0, 5000));
+		assertTrue("Parallel decode of a bit string does not match the input.",
+				input.substring(0, 5000).equals(HuffmanCoding.decodeHuffParallel(output, encodedHuffman)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncatedStream() throws Exception {
+		/* Cut the last code in half */
+		PackedBits truncated = new PackedBits(packed.getBytes(), packed.bitLength() - 1);
+		try (SpeculativeDecoder decoder = new SpeculativeDecoder(2, 1000, 100)) {
+			HuffmanCoding.decodePacked(truncated, encodedHuffman, decoder);
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StaticCodeTableTest {
+
+	List<String> corpus;
+	StaticTableRegistry registry;
+
+	@Before
+	public void setUp() throws Exception {
+		corpus = Arrays.asList("status ok", "status error: timeout", "ping", "pong", "status ok, queue empty",
+				"retry in 5 seconds", "status ok, 3 jobs queued", "error: disk full", "ping from node 12");
+		registry = new StaticTableRegistry();
+		registry.register(StaticCodeTable.train(1, corpus));
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		boolean check = true;
+		for (String message : corpus)
+			check &= message.equals(registry.decode(registry.encode(message)));
+		for (String message : new String[] { "", "s", "ok ok ok", "STATUS OK ~", "café 中" })
+			check &= message.equals(registry.decode(registry.encode(message)));
+		assertTrue("Decoding an encoded message must give the message back.", check);
+	}
+
+	@Test
+	public void testStaticBeatsDynamicOnTinyMessages() throws Exception {
+		byte[] encoded = registry.encode("status ok, 5 jobs queued");
+		StaticTableRegistry dynamicOnly = new StaticTableRegistry();
+		byte[] dynamic = dynamicOnly.encode("status ok, 5 jobs queued");
+		boolean check = StaticTableRegistry.tableOf(encoded) == 1 && StaticTableRegistry.tableOf(dynamic) == StaticTableRegistry.DYNAMIC
+				&& encoded.length < dynamic.length;
+		assertTrue("A message like the corpus must be smaller with the static table.", check);
+	}
+
+	@Test
+	public void testUnseenCharsEscaped() throws Exception {
+		StaticCodeTable table = registry.get(1);
+		String message = "status OK!";
+		BitWriter out = new BitWriter();
+		table.encode(message, out);
+		StringBuilder sb = new StringBuilder();
+		table.decode(out.toPackedBits().reader(), sb);
+		boolean check = message.equals(sb.toString()) && out.bitLength() == table.cost(message);
+		assertTrue("Chars the corpus did not have must be escaped.", check);
+	}
+
+	@Test
+	public void testFallsBackToDynamic() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 200; i++)
+			sb.append(i % 3 == 0 ? 'Z' : 'X');
+		String message = sb.toString();
+		byte[] encoded = registry.encode(message);
+		boolean check = StaticTableRegistry.tableOf(encoded) == StaticTableRegistry.DYNAMIC && message.equals(registry.decode(encoded));
+		assertTrue("A message unlike every corpus must get a table of its own.", check);
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		File file = File.createTempFile("static", ".huft");
+		file.deleteOnExit();
+		registry.get(1).save(file.getPath());
+		StaticTableRegistry loaded = StaticTableRegistry.load(file.getPath());
+		boolean check = true;
+		for (String message : corpus) {
+			byte[] encoded = registry.encode(message);
+			check &= Arrays.equals(encoded, loaded.encode(message)) && message.equals(loaded.decode(encoded));
+		}
+		assertTrue("A loaded table must encode and decode like the trained one.", check);
+	}
+
+	@Test
+	public void testUnknownTable() throws Exception {
+		byte[] encoded = registry.encode("ping");
+		boolean check = false;
+		try {
+			new StaticTableRegistry().decode(encoded);
+		} catch (IllegalArgumentException e) {
+			check = true;
+		}
+		assertTrue("Decoding with a missing table must fail.", check);
+	}
+
+	@Test
+	public void testCorruptDynamicMessage() throws Exception {
+		boolean check = new StaticTableRegistry().decode(new StaticTableRegistry().encode("")).isEmpty();
+
+		/* A dynamic header whose lone symbol is not END, so no end code can ever come */
+		BitWriter out = new BitWriter();
+		new CanonicalCode(new String[] { "x" }, new int[] { 0 }).writeHeader(out);
+		byte[] bits = out.toPackedBits().getBytes();
+		byte[] message = new byte[bits.length + 1];
+		System.arraycopy(bits, 0, message, 1, bits.length);
+		try {
+			registry.decode(message);
+			check = false;
+		} catch (IllegalArgumentException e) {
+		}
+
+		/* A dynamic message cut before its end code */
+		byte[] encoded = new StaticTableRegistry().encode("a message with its own table");
+		try {
+			registry.decode(Arrays.copyOf(encoded, encoded.length - 2));
+			check = false;
+		} catch (IllegalArgumentException e) {
+		}
+		assertTrue("A corrupt dynamic message must be rejected.", check);
+	}
+
+}
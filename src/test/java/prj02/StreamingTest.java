@@ -0,0 +1,65 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+import Tree.*;
+
+public class StreamingTest {
+
+	String input;
+	Map<String, Integer> fD;
+	Map<String,String> encodedHuffman;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "EEEEIIITTOS\nBAACABAD\r\nABBCCCDDDDEEEEEFFFFFF\n\nlast line without break";
+
+		fD = HuffmanCoding.compute_fd(input);
+		BTNode<Integer,String> huffmanRoot = HuffmanCoding.huffman_tree(fD);
+		encodedHuffman = HuffmanCoding.huffman_code(huffmanRoot);
+	}
+
+	@Test
+	public void testChunkedFrequencyDistribution() throws Exception {
+		/* A tiny buffer forces many chunks */
+		Map<String, Integer> streamed = HuffmanCoding.compute_fd(new ChunkedReader(new StringReader(input), 7));
+
+		boolean check = streamed.size() == fD.size();
+		for (String symbol : fD.getKeys()) {
+			if (!fD.get(symbol).equals(streamed.get(symbol)))
+				check = false;
+		}
+
+		assertTrue("Chunked frequency distribution differs from compute_fd", check);
+	}
+
+	@Test
+	public void testChunkedEncoding() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long bits = HuffmanCoding.encode(encodedHuffman, new ChunkedReader(new StringReader(input), 5), out);
+		PackedBits packed = HuffmanCoding.encodePacked(encodedHuffman, input);
+
+		boolean check = bits == packed.bitLength() && Arrays.equals(out.toByteArray(), packed.getBytes())
+				&& HuffmanCoding.decodePacked(new PackedBits(out.toByteArray(), bits), encodedHuffman).equals(input);
+
+		assertTrue("Chunked encoding differs from encodePacked", check);
+	}
+
+	@Test
+	public void testLoadWholeFile() {
+		String data = HuffmanCoding.load_data("stringData6.txt");
+
+		boolean check = data.length() == 4020 && HuffmanCoding.load_data("stringData4.txt").isEmpty();
+
+		assertTrue("Failed to load the whole file", check);
+	}
+
+}
@@ -0,0 +1,74 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+import Tree.*;
+
+public class TableDecoderTest {
+
+	String input;
+	Map<String, Integer> fD;
+	BTNode<Integer,String> huffmanRoot;
+	Map<String,String> encodedHuffman;
+
+	@Before
+	public void setUp() throws Exception {
+		/* Fibonacci frequencies give the deepest possible tree, so most codes need more than one table level */
+		StringBuilder sb = new StringBuilder();
+		int a = 1, b = 1;
+		for (char c = 'A'; c < 'A' + 24; c++) {
+			for (int i = 0; i < a; i++)
+				sb.append(c);
+			int next = a + b;
+			a = b;
+			b = next;
+		}
+		/* Shuffle so codes of every length end up next to each other */
+		char[] chars = sb.toString().toCharArray();
+		Random random = new Random(4035);
+		for (int i = chars.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			char tmp = chars[i];
+			chars[i] = chars[j];
+			chars[j] = tmp;
+		}
+		input = new String(chars);
+
+		fD = HuffmanCoding.compute_fd(input);
+		huffmanRoot = HuffmanCoding.huffman_tree(fD);
+		encodedHuffman = HuffmanCoding.huffman_code(huffmanRoot);
+	}
+
+	@Test
+	public void testDecodeLongCodes() {
+		PackedBits packed = HuffmanCoding.encodePacked(encodedHuffman, input);
+
+		boolean check = HuffmanCoding.decodePacked(packed, encodedHuffman).equals(input);
+
+		assertTrue("Failed to decode codes longer than the root table", check);
+	}
+
+	@Test
+	public void testSmallRootTable() {
+		CodeTable table = CodeTable.fromCodeMap(encodedHuffman);
+		PackedBits packed = HuffmanCoding.encodePacked(encodedHuffman, input);
+
+		boolean check = new TableDecoder(table, 1).decode(packed).equals(input)
+				&& new TableDecoder(table, 3).decode(packed).equals(input);
+
+		assertTrue("Failed to decode with a small root table", check);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncatedInput() {
+		String output = HuffmanCoding.encode(encodedHuffman, input);
+		HuffmanCoding.decodeHuff(output.substring(0, output.length() - 1), encodedHuffman);
+	}
+
+}
@@ -0,0 +1,90 @@
+package prj02;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import HashTable.*;
+
+public class WordAlphabetTest {
+
+	String input;
+
+	@Before
+	public void setUp() throws Exception {
+		/* Log lines: a few frequent words, and ids that are almost never repeated */
+		String[] levels = {"INFO", "INFO", "INFO", "WARN", "ERROR"};
+		String[] messages = {"request served in", "cache miss for key", "connection closed by peer", "retrying request"};
+		Random random = new Random(19);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			sb.append(levels[random.nextInt(levels.length)]).append(" [worker-").append(random.nextInt(8)).append("] ");
+			sb.append(messages[random.nextInt(messages.length)]).append(' ').append(Long.toHexString(random.nextLong()));
+			sb.append(", élapsed=").append(random.nextInt(500)).append("ms\n");
+		}
+		input = sb.toString();
+	}
+
+	@Test
+	public void testTokenize() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		WordAlphabet.tokenize("WARN [worker-3] done, ok.\n", token -> sb.append(token).append('|'));
+		assertTrue("Tokens are runs of word chars and runs of other chars: " + sb,
+				"WARN| [|worker|-|3|] |done|, |ok|.\n|".equals(sb.toString()));
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		boolean check = true;
+		for (int topN : new int[] {0, 1, 10, 1024}) {
+			WordAlphabet alphabet = WordAlphabet.train(input, topN);
+			for (String text : new String[] {input, "", "x", "unseen words only!", "INFO INFO INFO"})
+				check &= text.equals(HuffmanCoding.decodeWords(HuffmanCoding.encodeWords(text, alphabet)));
+			check &= alphabet.size() <= topN;
+		}
+		assertTrue("Word round trip does not match the input.", check);
+	}
+
+	@Test
+	public void testRareWordsAreEscaped() throws Exception {
+		WordAlphabet alphabet = WordAlphabet.train(input, 200);
+		Map<String, Integer> fD = HuffmanCoding.compute_fd(input, alphabet);
+		boolean check = fD.containsKey("INFO") && fD.containsKey(" [") && fD.containsKey(WordAlphabet.ESCAPE)
+				&& fD.size() <= 201;
+		assertTrue("Only the top words and the escape symbol must be in the word table.", check);
+	}
+
+	@Test
+	public void testFewerBitsThanChars() throws Exception {
+		WordAlphabet alphabet = WordAlphabet.train(input, 256);
+		long wordBits = HuffmanCoding.encodeWords(input, alphabet).bitLength();
+		long charBits = HuffmanCoding.huffman_bits(HuffmanCoding.compute_fd(input));
+		assertTrue("Words take " + wordBits + " bits against " + charBits + " for chars", wordBits < charBits * 0.75);
+	}
+
+	@Test
+	public void testTruncatedInput() throws Exception {
+		String text = input.substring(0, 2000);
+		PackedBits packed = WordAlphabet.train(input, 64).encode(text);
+		for (long cut = 0; cut < packed.bitLength(); cut += 7) {
+			try {
+				WordAlphabet.decode(new PackedBits(packed.getBytes(), cut));
+				fail("Decoded " + cut + " of " + packed.bitLength() + " bits");
+			} catch (IllegalArgumentException e) {
+			}
+		}
+
+		/* A huge token count must be rejected, not decoded into zeros until memory runs out */
+		byte[] bytes = packed.getBytes().clone();
+		bytes[0] = 0x7f;
+		try {
+			WordAlphabet.decode(new PackedBits(bytes, packed.bitLength()));
+			fail("Decoded a huge token count");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+}